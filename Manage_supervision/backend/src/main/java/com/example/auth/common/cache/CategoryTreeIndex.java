@@ -0,0 +1,224 @@
+package com.example.auth.common.cache;
+
+import com.example.auth.common.event.CategoryChangedEvent;
+import com.example.auth.mapper.CategoryMapper;
+import com.example.auth.model.entity.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分类树内存索引
+ *
+ * 一次加载整张categories表，预先计算父子关系和欧拉序区间：
+ * 子树内的分类在欧拉序中连续，因此子树查询为O(k)，祖先判断为O(1)。
+ * 分类变更后在事务提交时重建新快照并整体替换（写时复制），读操作无需加锁；
+ * 另外定时重建，使多节点部署下其他节点的修改也能生效。
+ * 每次重建在读库前领取递增的代数，只有比当前快照更新的结果才会替换，
+ * 较早开始但较晚完成的重建不会覆盖新快照。
+ */
+@Component
+public class CategoryTreeIndex {
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    private volatile Snapshot snapshot;
+
+    // 已领取的重建代数
+    private final AtomicLong generations = new AtomicLong();
+
+    // 当前快照的代数，在this上同步修改
+    private long snapshotGeneration;
+
+    /**
+     * 获取分类
+     */
+    public Category get(Long id) {
+        return snapshot().byId.get(id);
+    }
+
+    /**
+     * 获取所有根分类（按ID排序）
+     */
+    public List<Category> getRoots() {
+        return Collections.unmodifiableList(snapshot().roots);
+    }
+
+    /**
+     * 获取直接子分类（按ID排序）
+     */
+    public List<Category> getChildren(Long id) {
+        return Collections.unmodifiableList(snapshot().children.getOrDefault(id, Collections.emptyList()));
+    }
+
+    /**
+     * 获取所有分类（按父级ID、ID排序）
+     */
+    public List<Category> getAll() {
+        return snapshot().all;
+    }
+
+    /**
+     * 获取分类及其所有子孙分类的ID，分类不存在时只返回自身
+     */
+    public List<Long> getSubtreeIds(Long id) {
+        Snapshot current = snapshot();
+        Integer enter = current.enter.get(id);
+        if (enter == null) {
+            return List.of(id);
+        }
+        return Collections.unmodifiableList(current.eulerOrder.subList(enter, current.exit.get(id)));
+    }
+
+    /**
+     * 判断descendantId是否是ancestorId的子孙分类（不含自身）
+     */
+    public boolean isDescendant(Long ancestorId, Long descendantId) {
+        if (ancestorId == null || descendantId == null || ancestorId.equals(descendantId)) {
+            return false;
+        }
+
+        Snapshot current = snapshot();
+        Integer ancestorEnter = current.enter.get(ancestorId);
+        Integer descendantEnter = current.enter.get(descendantId);
+        if (ancestorEnter == null || descendantEnter == null) {
+            return false;
+        }
+        return ancestorEnter < descendantEnter && descendantEnter < current.exit.get(ancestorId);
+    }
+
+    /**
+     * 分类变更提交后重建索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * 定时重建，同步其他节点的修改
+     */
+    @Scheduled(fixedDelayString = "${category.index.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (snapshot != null) {
+            rebuild();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = rebuild();
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot rebuild() {
+        long generation = generations.incrementAndGet();
+        Snapshot rebuilt = new Snapshot(categoryMapper.selectList(null));
+        synchronized (this) {
+            if (generation > snapshotGeneration) {
+                snapshot = rebuilt;
+                snapshotGeneration = generation;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 不可变的分类树快照
+     */
+    private static class Snapshot {
+
+        private final Map<Long, Category> byId = new HashMap<>();
+
+        private final Map<Long, List<Category>> children = new HashMap<>();
+
+        private final List<Category> roots = new ArrayList<>();
+
+        private final List<Category> all;
+
+        // 欧拉序：子树[enter, exit)区间内的分类ID
+        private final List<Long> eulerOrder = new ArrayList<>();
+
+        private final Map<Long, Integer> enter = new HashMap<>();
+
+        private final Map<Long, Integer> exit = new HashMap<>();
+
+        private Snapshot(List<Category> categories) {
+            List<Category> sorted = new ArrayList<>(categories);
+            sorted.sort(Comparator.comparing(Category::getId));
+
+            for (Category category : sorted) {
+                byId.put(category.getId(), category);
+            }
+
+            for (Category category : sorted) {
+                Long parentId = category.getParentId();
+                if (parentId == null || parentId == 0 || !byId.containsKey(parentId)) {
+                    roots.add(category);
+                } else {
+                    children.computeIfAbsent(parentId, key -> new ArrayList<>()).add(category);
+                }
+            }
+
+            for (Category root : roots) {
+                walk(root);
+            }
+
+            List<Category> flat = new ArrayList<>(sorted);
+            flat.sort(Comparator.comparing(Category::getParentId, Comparator.nullsFirst(Comparator.<Long>naturalOrder()))
+                    .thenComparing(Category::getId));
+            this.all = Collections.unmodifiableList(flat);
+        }
+
+        /**
+         * 非递归深度优先遍历，记录每个分类的欧拉序区间
+         */
+        private void walk(Category root) {
+            Deque<Category> stack = new ArrayDeque<>();
+            Deque<Integer> childCursor = new ArrayDeque<>();
+            stack.push(root);
+            childCursor.push(0);
+            enter.put(root.getId(), eulerOrder.size());
+            eulerOrder.add(root.getId());
+
+            while (!stack.isEmpty()) {
+                Category current = stack.peek();
+                int next = childCursor.pop();
+                List<Category> currentChildren = children.getOrDefault(current.getId(), Collections.emptyList());
+
+                if (next < currentChildren.size()) {
+                    childCursor.push(next + 1);
+                    Category child = currentChildren.get(next);
+                    if (!enter.containsKey(child.getId())) {
+                        stack.push(child);
+                        childCursor.push(0);
+                        enter.put(child.getId(), eulerOrder.size());
+                        eulerOrder.add(child.getId());
+                    }
+                } else {
+                    stack.pop();
+                    exit.put(current.getId(), eulerOrder.size());
+                }
+            }
+        }
+    }
+}
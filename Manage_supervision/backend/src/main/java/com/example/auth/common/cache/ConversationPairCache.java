@@ -0,0 +1,101 @@
+package com.example.auth.common.cache;
+
+import com.example.auth.common.event.UserChangedEvent;
+import com.example.auth.mapper.ConversationMapper;
+import com.example.auth.model.entity.Conversation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户对 -> 会话缓存
+ *
+ * 以（小ID, 大ID）为键缓存会话ID和参与双方，发送消息时不再查询会话表。
+ * 会话只会随用户删除而级联删除，因此只在用户变更后失效该用户相关的条目，容量满时按LRU淘汰。
+ * 缓存中的会话不含未读数等统计字段，需要最新数据时使用loadOrCreate。
+ */
+@Component
+public class ConversationPairCache {
+
+    private final ConversationMapper conversationMapper;
+
+    private final Cache<UserPair, Conversation> conversations;
+
+    public ConversationPairCache(ConversationMapper conversationMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${chat.conversation-cache.max-size:50000}") long maxSize) {
+        this.conversationMapper = conversationMapper;
+        this.conversations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, conversations, "chat.conversation");
+    }
+
+    /**
+     * 获取两个用户之间的会话（仅含ID和参与双方），不存在时创建
+     */
+    public Conversation getOrCreate(Long userId, Long otherUserId) {
+        Conversation conversation = conversations.getIfPresent(UserPair.of(userId, otherUserId));
+        if (conversation == null) {
+            conversation = loadOrCreate(userId, otherUserId);
+        }
+        // 返回副本，调用方修改不会影响缓存
+        return identityOf(conversation);
+    }
+
+    /**
+     * 从数据库读取两个用户之间的完整会话，不存在时创建
+     * 并发创建同一会话时由唯一索引去重，失败方重新读取已提交的会话
+     */
+    public Conversation loadOrCreate(Long userId, Long otherUserId) {
+        Conversation conversation = conversationMapper.findByUserIds(userId, otherUserId);
+        if (conversation == null) {
+            conversationMapper.insertIgnore(userId, otherUserId, LocalDateTime.now());
+            conversation = conversationMapper.lockByUserIds(userId, otherUserId);
+        }
+        conversations.put(UserPair.of(userId, otherUserId), identityOf(conversation));
+        return conversation;
+    }
+
+    /**
+     * 用户变更（包括删除）后失效该用户参与的会话，在事务提交后执行
+     * 角色定义变更不会删除会话，无需处理
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Long userId = event.getUserId();
+        if (userId != null) {
+            conversations.asMap().keySet().removeIf(pair -> pair.contains(userId));
+        }
+    }
+
+    private Conversation identityOf(Conversation source) {
+        Conversation conversation = new Conversation();
+        conversation.setId(source.getId());
+        conversation.setUser1Id(source.getUser1Id());
+        conversation.setUser2Id(source.getUser2Id());
+        return conversation;
+    }
+
+    /**
+     * 规范化的用户对，小ID在前
+     */
+    private record UserPair(long lowId, long highId) {
+
+        static UserPair of(Long userId, Long otherUserId) {
+            return new UserPair(Math.min(userId, otherUserId), Math.max(userId, otherUserId));
+        }
+
+        boolean contains(Long userId) {
+            return lowId == userId || highId == userId;
+        }
+    }
+}
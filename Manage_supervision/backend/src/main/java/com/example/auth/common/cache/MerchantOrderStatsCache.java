@@ -0,0 +1,55 @@
+package com.example.auth.common.cache;
+
+import com.example.auth.common.event.MerchantOrdersChangedEvent;
+import com.example.auth.model.entity.MerchantDailyStats;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 商家订单按状态汇总的短期缓存
+ *
+ * 按商家缓存各状态的订单数和金额，商家看板反复刷新时不重复汇总统计表。
+ * 过期时间很短，订单创建和状态变化通过MerchantOrdersChangedEvent在事务提交后失效。
+ */
+@Component
+public class MerchantOrderStatsCache {
+
+    private final Cache<Long, Map<String, MerchantDailyStats>> totals;
+
+    public MerchantOrderStatsCache(MeterRegistry meterRegistry,
+                                   @Value("${report.status-cache.max-size:10000}") long maxSize,
+                                   @Value("${report.status-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, totals, "report.merchant-status");
+    }
+
+    /**
+     * 获取商家按状态汇总的统计（状态 -> 汇总），未命中时调用loader加载，返回的Map不可修改
+     */
+    public Map<String, MerchantDailyStats> getTotals(Long merchantId,
+                                                     Function<Long, Map<String, MerchantDailyStats>> loader) {
+        return totals.get(merchantId, id -> Map.copyOf(loader.apply(id)));
+    }
+
+    /**
+     * 订单统计变化后失效相关商家，在事务提交后执行
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMerchantOrdersChanged(MerchantOrdersChangedEvent event) {
+        totals.invalidateAll(event.getMerchantIds());
+    }
+}
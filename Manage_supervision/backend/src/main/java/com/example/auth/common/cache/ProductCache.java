@@ -0,0 +1,158 @@
+package com.example.auth.common.cache;
+
+import com.example.auth.common.event.CategoryChangedEvent;
+import com.example.auth.common.event.ProductChangedEvent;
+import com.example.auth.model.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 商品本地缓存
+ *
+ * 商品详情按ID缓存ProductDTO；已审核商品列表按查询条件缓存商品ID和总数，
+ * 列表展示时再从详情缓存取DTO，因此库存变化只需失效详情。
+ * 缓存按容量淘汰并设置过期时间，商品变更通过ProductChangedEvent在事务提交后失效，
+ * 命中率通过actuator的cache.*指标暴露。
+ * ProductDTO是可变对象，缓存中的实例不对外暴露，读写时都复制一份，调用方修改返回值不会污染缓存。
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, ProductDTO> products;
+
+    private final Cache<String, ListingPage> listings;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${product.cache.max-size:10000}") long maxSize,
+                        @Value("${product.cache.listing-max-size:1000}") long listingMaxSize,
+                        @Value("${product.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.listings = Caffeine.newBuilder()
+                .maximumSize(listingMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "product.detail");
+        CaffeineCacheMetrics.monitor(meterRegistry, listings, "product.listing");
+    }
+
+    /**
+     * 获取商品详情，未命中时调用loader加载，loader返回null时不缓存
+     */
+    public ProductDTO getProduct(Long productId, Function<Long, ProductDTO> loader) {
+        ProductDTO cached = products.get(productId, loader);
+        return cached != null ? copy(cached) : null;
+    }
+
+    /**
+     * 批量获取商品详情，未命中的部分一次性交给loader加载
+     */
+    public Map<Long, ProductDTO> getProducts(Collection<Long> productIds,
+                                            Function<Set<? extends Long>, Map<Long, ProductDTO>> loader) {
+        Map<Long, ProductDTO> cached = products.getAll(productIds, loader);
+        Map<Long, ProductDTO> copies = new HashMap<>(cached.size());
+        cached.forEach((productId, dto) -> copies.put(productId, copy(dto)));
+        return copies;
+    }
+
+    /**
+     * 放入已加载的商品详情
+     */
+    public void putProducts(Collection<ProductDTO> dtos) {
+        for (ProductDTO dto : dtos) {
+            products.put(dto.getId(), copy(dto));
+        }
+    }
+
+    /**
+     * 获取商品列表页，未命中时调用loader查询
+     */
+    public ListingPage getListing(String key, Supplier<ListingPage> loader) {
+        return listings.get(key, k -> loader.get());
+    }
+
+    /**
+     * 商品变更后失效缓存，在事务提交后执行，避免回滚前的数据被重新缓存
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        products.invalidateAll(event.getProductIds());
+        if (event.isListingsAffected()) {
+            listings.invalidateAll();
+        }
+    }
+
+    /**
+     * 分类树变更会改变分类下的商品范围和分类名称，失效全部缓存
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        products.invalidateAll();
+        listings.invalidateAll();
+    }
+
+    private static ProductDTO copy(ProductDTO source) {
+        // 字段都是不可变类型，逐个复制即为深拷贝
+        ProductDTO dto = new ProductDTO();
+        dto.setId(source.getId());
+        dto.setName(source.getName());
+        dto.setDescription(source.getDescription());
+        dto.setImageUrl(source.getImageUrl());
+        dto.setPrice(source.getPrice());
+        dto.setStock(source.getStock());
+        dto.setCategoryId(source.getCategoryId());
+        dto.setCategoryName(source.getCategoryName());
+        dto.setMerchantId(source.getMerchantId());
+        dto.setMerchantName(source.getMerchantName());
+        dto.setCreateTime(source.getCreateTime());
+        dto.setUpdateTime(source.getUpdateTime());
+        dto.setStatus(source.getStatus());
+        dto.setAuditComment(source.getAuditComment());
+        dto.setAuditTime(source.getAuditTime());
+        dto.setAuditUserId(source.getAuditUserId());
+        dto.setAuditUserName(source.getAuditUserName());
+        return dto;
+    }
+
+    /**
+     * 缓存的列表页：商品ID和总数
+     */
+    public static class ListingPage {
+
+        private final List<Long> productIds;
+
+        private final long total;
+
+        public ListingPage(List<Long> productIds, long total) {
+            this.productIds = List.copyOf(productIds);
+            this.total = total;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+    }
+}
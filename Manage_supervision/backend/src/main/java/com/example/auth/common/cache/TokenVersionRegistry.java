@@ -0,0 +1,133 @@
+package com.example.auth.common.cache;
+
+import com.example.auth.mapper.UserMapper;
+import com.example.auth.mapper.UserTombstoneMapper;
+import com.example.auth.model.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 令牌版本（吊销纪元）登记表
+ *
+ * 用户被禁用、重置/修改密码或角色变更时递增users.token_version，
+ * Token中的ver小于当前版本即视为已吊销。校验时无需查询数据库，
+ * 内存中只保存最近一个Token有效期内吊销过的用户（按users.token_revoked_at索引加载）：
+ * 更早吊销的用户，吊销前签发的Token都已过期，之后签发的Token版本都不低于当前版本，无需再比较。
+ * 其他节点的吊销通过定时刷新同步。
+ * 用户删除后users中已没有该行，改为记录到user_tombstones，已删除用户的任何Token都视为已吊销；
+ * 记录保留一个Token有效期，之后签发的Token不可能再属于该用户。
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // 已删除用户的版本，大于任何Token中的版本
+    private static final int DELETED = Integer.MAX_VALUE;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserTombstoneMapper userTombstoneMapper;
+
+    @Value("${jwt.expiration}")
+    private long tokenLifetimeMs;
+
+    private volatile Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    // 刷新开始后本节点生效的吊销，刷新查询可能读不到，替换时合并进去
+    private Map<Long, Integer> appliedDuringRefresh = new HashMap<>();
+
+    // 串行化定时刷新的替换和本节点吊销的合并，避免替换时丢失刚生效的吊销
+    private final Object lock = new Object();
+
+    /**
+     * 获取用户当前的令牌版本
+     */
+    public int currentVersion(Long userId) {
+        return versions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * 判断Token中的版本是否仍然有效
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return tokenVersion >= currentVersion(userId);
+    }
+
+    /**
+     * 吊销用户已签发的所有Token，所在事务提交后生效
+     */
+    public void revoke(Long userId) {
+        userMapper.incrementTokenVersion(userId, LocalDateTime.now());
+        Integer version = userMapper.findTokenVersion(userId);
+        if (version == null) {
+            return;
+        }
+        applyAfterCommit(userId, version);
+    }
+
+    /**
+     * 用户删除时调用（与删除在同一事务中），吊销该用户的所有Token
+     */
+    public void revokeDeleted(Long userId) {
+        userTombstoneMapper.insert(userId, LocalDateTime.now());
+        applyAfterCommit(userId, DELETED);
+    }
+
+    private void applyAfterCommit(Long userId, int version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(userId, version);
+                }
+            });
+        } else {
+            apply(userId, version);
+        }
+    }
+
+    private void apply(Long userId, int version) {
+        synchronized (lock) {
+            versions.merge(userId, version, Math::max);
+            appliedDuringRefresh.merge(userId, version, Math::max);
+        }
+    }
+
+    /**
+     * 启动时及定时从数据库加载令牌版本
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.token-version.refresh-interval-ms:30000}")
+    public void refresh() {
+        synchronized (lock) {
+            appliedDuringRefresh = new HashMap<>();
+        }
+        Map<Long, Integer> loaded = new ConcurrentHashMap<>();
+        LocalDateTime oldestValidIssue = LocalDateTime.now().minusNanos(tokenLifetimeMs * 1_000_000);
+        for (User user : userMapper.findTokenVersionsRevokedSince(oldestValidIssue)) {
+            loaded.put(user.getId(), user.getTokenVersion());
+        }
+        userTombstoneMapper.deleteBefore(oldestValidIssue);
+        for (Long userId : userTombstoneMapper.findUserIdsDeletedSince(oldestValidIssue)) {
+            loaded.put(userId, DELETED);
+        }
+
+        synchronized (lock) {
+            // 版本只增不减，保留加载期间本节点已生效的更高版本；更早的条目随替换丢弃，内存不会无限增长
+            appliedDuringRefresh.forEach((userId, version) -> loaded.merge(userId, version, Math::max));
+            this.versions = loaded;
+        }
+    }
+}
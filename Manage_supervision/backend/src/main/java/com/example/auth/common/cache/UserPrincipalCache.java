@@ -0,0 +1,79 @@
+package com.example.auth.common.cache;
+
+import com.example.auth.common.event.UserChangedEvent;
+import com.example.auth.model.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.function.Function;
+
+/**
+ * 已认证用户缓存
+ *
+ * 按用户ID缓存用户及其角色，供拦截器和UserContext解析当前用户，避免每个请求都查询用户表和角色表。
+ * 过期时间较短，状态、密码、角色变更通过UserChangedEvent在事务提交后失效。
+ * 每次返回副本，调用方修改用户对象不会影响缓存。
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<Long, User> users;
+
+    public UserPrincipalCache(MeterRegistry meterRegistry,
+                              @Value("${auth.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${auth.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "auth.principal");
+    }
+
+    /**
+     * 获取用户（含角色），未命中时调用loader加载，loader返回null时不缓存
+     */
+    public User get(Long userId, Function<Long, User> loader) {
+        User user = users.get(userId, loader);
+        return user != null ? copyOf(user) : null;
+    }
+
+    /**
+     * 用户变更后失效缓存，在事务提交后执行
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() != null) {
+            users.invalidate(event.getUserId());
+        } else {
+            users.invalidateAll();
+        }
+    }
+
+    private User copyOf(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setUsername(source.getUsername());
+        user.setPassword(source.getPassword());
+        user.setCreateTime(source.getCreateTime());
+        user.setAvatar(source.getAvatar());
+        user.setRealName(source.getRealName());
+        user.setNickname(source.getNickname());
+        user.setEmail(source.getEmail());
+        user.setPhone(source.getPhone());
+        user.setBio(source.getBio());
+        user.setStatus(source.getStatus());
+        user.setUserNumber(source.getUserNumber());
+        user.setTokenVersion(source.getTokenVersion());
+        user.setRoles(source.getRoles() != null ? new HashSet<>(source.getRoles()) : new HashSet<>());
+        return user;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.auth.common.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.example.auth.common.event.UserChangedEvent;
+import com.example.auth.mapper.UserMapper;
+import com.example.auth.model.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户摘要缓存
+ *
+ * 按用户ID缓存展示用的用户名、真实姓名和头像，供聊天消息、会话列表等DTO组装使用。
+ * 未命中的用户合并为一次IN查询加载，资料和头像修改通过UserChangedEvent在事务提交后失效。
+ * 返回的User只填充id、username、realName、avatar，不能用于鉴权或更新。
+ */
+@Component
+public class UserSummaryCache {
+
+    private final UserMapper userMapper;
+
+    private final Cache<Long, User> summaries;
+
+    public UserSummaryCache(UserMapper userMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.user-summary-cache.max-size:50000}") long maxSize,
+                            @Value("${auth.user-summary-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.userMapper = userMapper;
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, summaries, "auth.user-summary");
+    }
+
+    /**
+     * 获取单个用户摘要，用户不存在时返回null
+     */
+    public User get(Long userId) {
+        return getAll(Set.of(userId)).get(userId);
+    }
+
+    /**
+     * 批量获取用户摘要，未命中的用户一次IN查询加载，不存在的用户不会出现在结果中
+     * @return 用户ID -> 用户摘要
+     */
+    public Map<Long, User> getAll(Collection<Long> userIds) {
+        Set<Long> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, User> result = new HashMap<>();
+        summaries.getAll(ids, this::load).forEach((id, user) -> result.put(id, copyOf(user)));
+        return result;
+    }
+
+    /**
+     * 用户资料变更后失效缓存，在事务提交后执行
+     * 角色定义变更不影响摘要字段，无需处理
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() != null) {
+            summaries.invalidate(event.getUserId());
+        }
+    }
+
+    private Map<Long, User> load(Set<? extends Long> userIds) {
+        return userMapper.selectList(new LambdaQueryWrapper<User>()
+                        .select(User::getId, User::getUsername, User::getRealName, User::getAvatar)
+                        .in(User::getId, userIds))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private User copyOf(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setUsername(source.getUsername());
+        user.setRealName(source.getRealName());
+        user.setAvatar(source.getAvatar());
+        return user;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.auth.common.event;
+
+/**
+ * 分类树变更事件，用于重建分类索引和失效按分类缓存的商品列表
+ */
+public class CategoryChangedEvent {
+}
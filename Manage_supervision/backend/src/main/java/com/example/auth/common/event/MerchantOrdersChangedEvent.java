@@ -0,0 +1,19 @@
+package com.example.auth.common.event;
+
+import java.util.Collection;
+
+/**
+ * 商家订单统计变更事件（订单创建、状态变化），用于失效商家订单统计缓存
+ */
+public class MerchantOrdersChangedEvent {
+
+    private final Collection<Long> merchantIds;
+
+    public MerchantOrdersChangedEvent(Collection<Long> merchantIds) {
+        this.merchantIds = merchantIds;
+    }
+
+    public Collection<Long> getMerchantIds() {
+        return merchantIds;
+    }
+}
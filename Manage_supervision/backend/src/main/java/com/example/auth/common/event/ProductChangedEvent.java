@@ -0,0 +1,42 @@
+package com.example.auth.common.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 商品变更事件，用于失效商品缓存
+ */
+public class ProductChangedEvent {
+
+    private final Collection<Long> productIds;
+
+    // 是否影响商品列表（新增、删除、审核、修改会影响，库存变化不影响）
+    private final boolean listingsAffected;
+
+    public ProductChangedEvent(Collection<Long> productIds, boolean listingsAffected) {
+        this.productIds = productIds;
+        this.listingsAffected = listingsAffected;
+    }
+
+    /**
+     * 商品信息变更，影响详情和列表
+     */
+    public static ProductChangedEvent updated(Long productId) {
+        return new ProductChangedEvent(productId != null ? List.of(productId) : List.of(), true);
+    }
+
+    /**
+     * 仅库存变更，只影响详情
+     */
+    public static ProductChangedEvent stockChanged(Collection<Long> productIds) {
+        return new ProductChangedEvent(productIds, false);
+    }
+
+    public Collection<Long> getProductIds() {
+        return productIds;
+    }
+
+    public boolean isListingsAffected() {
+        return listingsAffected;
+    }
+}
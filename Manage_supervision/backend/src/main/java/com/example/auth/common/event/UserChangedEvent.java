@@ -0,0 +1,32 @@
+package com.example.auth.common.event;
+
+/**
+ * 用户变更事件（状态、密码、角色、资料），用于失效已认证用户缓存
+ */
+public class UserChangedEvent {
+
+    // 为null表示影响所有用户（例如角色权限被修改）
+    private final Long userId;
+
+    private UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * 单个用户信息变更
+     */
+    public static UserChangedEvent of(Long userId) {
+        return new UserChangedEvent(userId);
+    }
+
+    /**
+     * 角色定义变更，影响所有用户
+     */
+    public static UserChangedEvent all() {
+        return new UserChangedEvent(null);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.auth.common.util;
+
+import com.example.auth.common.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 只按ID排序的分页游标，对客户端不透明
+ */
+public class IdCursor {
+
+    private final Long id;
+
+    public IdCursor(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * 编码为客户端可直接回传的字符串
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析客户端回传的游标，为空时返回null表示从第一页开始
+     */
+    public static IdCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new IdCursor(Long.valueOf(raw));
+        } catch (RuntimeException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.auth.common.util;
+
+import com.example.auth.mapper.IdSequenceMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 雪花算法ID生成器，用于订单号、支付单号和交易号
+ *
+ * 64位ID = 41位毫秒时间戳（自2024-01-01起） + 10位节点号 + 12位毫秒内序号，同一节点内严格递增。
+ * 上次使用的时间戳和序号打包在一个AtomicLong中，通过CAS更新，不加锁。
+ * 同一毫秒内序号用完或系统时钟回拨时，沿用上次的时间戳继续递增（必要时借用下一毫秒），
+ * 不会等待也不会产生重复ID；时钟追上后自动恢复。
+ * 发放的时间戳预先登记到id_sequences表（高水位），重启后从高水位之后继续，
+ * 即使重启前借用过未来的毫秒或重启后时钟回拨也不会重复。
+ * 高水位由后台线程在登记窗口用掉一半时提前延长，生成ID的线程不访问数据库也不加锁；
+ * 后台登记跟不上时生成线程短暂等待，超时仍未登记则抛出异常。
+ * id.node-id必须显式配置（多节点部署时每个节点不同），未配置时启动失败。
+ */
+@Component
+public class IdGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGenerator.class);
+
+    private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // long最大值为19位，编号统一补零到19位，字符串顺序与数值顺序一致
+    private static final int NUMBER_LENGTH = 19;
+
+    private final IdSequenceMapper idSequenceMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final String sequenceName;
+
+    private final long nodeBits;
+
+    private final long reserveMs;
+
+    private final long reserveWaitMs;
+
+    // 上次使用的（时间戳 << SEQUENCE_BITS | 序号）
+    private final AtomicLong state = new AtomicLong();
+
+    // 已登记的最大时间戳，发放的ID时间戳不超过该值，只由后台线程修改
+    private volatile long reservedUntil = -1;
+
+    // 后台线程：定期延长高水位，生成线程等待时也由它立即登记
+    private final ScheduledExecutorService reserver;
+
+    private final AtomicBoolean extendRequested = new AtomicBoolean();
+
+    public IdGenerator(IdSequenceMapper idSequenceMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${id.node-id:}") String nodeIdValue,
+                       @Value("${id.reserve-ms:5000}") long reserveMs,
+                       @Value("${id.reserve-wait-ms:1000}") long reserveWaitMs) {
+        if (nodeIdValue == null || nodeIdValue.isBlank()) {
+            throw new IllegalStateException("必须配置id.node-id（0-" + MAX_NODE_ID + "），多节点部署时每个节点不同");
+        }
+        long nodeId;
+        try {
+            nodeId = Long.parseLong(nodeIdValue.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("id.node-id不是有效的数字: " + nodeIdValue);
+        }
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("id.node-id必须在0到" + MAX_NODE_ID + "之间: " + nodeId);
+        }
+        this.idSequenceMapper = idSequenceMapper;
+        this.sequenceName = "snowflake_node_" + nodeId;
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.reserveMs = Math.max(2, reserveMs);
+        this.reserveWaitMs = reserveWaitMs;
+        this.reserver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "id-high-water");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // 独立事务登记高水位，调用方事务回滚时登记仍然有效
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 从上次运行登记的高水位之后开始发放，系统时钟落后时先借用高水位之后的毫秒，时钟追上后恢复
+     */
+    @PostConstruct
+    public void init() {
+        Long highWater = idSequenceMapper.findNextId(sequenceName);
+        if (highWater != null) {
+            long now = System.currentTimeMillis() - EPOCH;
+            if (now <= highWater) {
+                logger.warn("系统时钟落后于上次运行登记的ID高水位 {} ms，从高水位之后继续发放", highWater - now + 1);
+            }
+            state.set(highWater << SEQUENCE_BITS | SEQUENCE_MASK);
+        }
+
+        // 启动时同步登记一次，之后由后台线程按窗口的四分之一间隔检查
+        extend();
+        if (reservedUntil < 0) {
+            throw new IllegalStateException("无法登记ID高水位");
+        }
+        long interval = Math.max(1, reserveMs / 4);
+        reserver.scheduleWithFixedDelay(this::extend, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reserver.shutdownNow();
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            long next = now > (current >>> SEQUENCE_BITS)
+                    ? now << SEQUENCE_BITS
+                    // 同一毫秒或时钟回拨：序号加一，溢出时自然进位到下一毫秒
+                    : current + 1;
+            long timestamp = next >>> SEQUENCE_BITS;
+            if (timestamp > reservedUntil) {
+                awaitReserved(timestamp);
+                continue;
+            }
+            if (state.compareAndSet(current, next)) {
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * 生成下一个19位数字编号，可按字符串排序
+     */
+    public String nextNumber() {
+        return nextNumber("");
+    }
+
+    /**
+     * 生成带前缀的编号，前缀后为19位数字
+     */
+    public String nextNumber(String prefix) {
+        String id = Long.toString(nextId());
+        StringBuilder sb = new StringBuilder(prefix.length() + NUMBER_LENGTH).append(prefix);
+        for (int i = id.length(); i < NUMBER_LENGTH; i++) {
+            sb.append('0');
+        }
+        return sb.append(id).toString();
+    }
+
+    /**
+     * 登记窗口剩余不到一半时把高水位延长到当前使用的时间戳之后reserveMs，只在后台线程执行
+     */
+    private void extend() {
+        extendRequested.set(false);
+        long used = Math.max(state.get() >>> SEQUENCE_BITS, System.currentTimeMillis() - EPOCH);
+        if (reservedUntil - used > reserveMs / 2) {
+            return;
+        }
+        long until = used + reserveMs;
+        try {
+            transactionTemplate.executeWithoutResult(status -> idSequenceMapper.raiseTo(sequenceName, until));
+            reservedUntil = until;
+        } catch (Exception e) {
+            logger.error("登记ID高水位失败: {}", sequenceName, e);
+        }
+    }
+
+    /**
+     * 高水位尚未覆盖timestamp时请求后台线程立即登记并短暂等待，不占用数据库连接
+     */
+    private void awaitReserved(long timestamp) {
+        if (extendRequested.compareAndSet(false, true)) {
+            reserver.execute(this::extend);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(reserveWaitMs);
+        while (timestamp > reservedUntil) {
+            if (System.nanoTime() - deadline > 0) {
+                extendRequested.set(false);
+                throw new IllegalStateException("ID高水位登记超时，暂时无法生成ID");
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+}
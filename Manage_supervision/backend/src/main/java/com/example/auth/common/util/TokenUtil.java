@@ -1,6 +1,11 @@
 package com.example.auth.common.util;
 
+import com.example.auth.model.entity.User;
 import com.example.auth.util.JwtUtil;
+import com.example.auth.util.UserContext;
+import com.example.auth.util.VerifiedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -14,6 +19,8 @@ import jakarta.servlet.http.HttpServletRequest;
 @Component
 public class TokenUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(TokenUtil.class);
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -26,18 +33,25 @@ public class TokenUtil {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
                 HttpServletRequest request = attributes.getRequest();
+
+                // 拦截器已解析过当前用户时直接使用
+                Object resolved = request.getAttribute(UserContext.CURRENT_USER_ATTRIBUTE);
+                if (resolved instanceof User) {
+                    return ((User) resolved).getId();
+                }
+
                 String authHeader = request.getHeader("Authorization");
                 
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    String token = authHeader.substring(7);
-                    if (jwtUtil.validateToken(token)) {
-                        return jwtUtil.getUserIdFromToken(token);
+                    VerifiedToken token = jwtUtil.verify(authHeader.substring(7));
+                    if (token != null) {
+                        return token.getUserId();
                     }
                 }
             }
         } catch (Exception e) {
             // 记录错误但不抛出，返回null表示未获取到用户ID
-            System.err.println("获取当前用户ID失败: " + e.getMessage());
+            logger.warn("获取当前用户ID失败", e);
         }
         return null;
     }
@@ -55,16 +69,14 @@ public class TokenUtil {
                 String authHeader = request.getHeader("Authorization");
                 
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    String token = authHeader.substring(7);
-                    if (jwtUtil.validateToken(token)) {
-                        // 使用jwtUtil获取用户角色，这里假设JwtUtil有方法可以获取用户角色
-                        // 如果没有这个方法，需要在JwtUtil中添加
-                        return jwtUtil.hasRole(token, roleName);
+                    VerifiedToken token = jwtUtil.verify(authHeader.substring(7));
+                    if (token != null) {
+                        return token.hasRole(roleName);
                     }
                 }
             }
         } catch (Exception e) {
-            System.err.println("检查用户角色失败: " + e.getMessage());
+            logger.warn("检查用户角色失败", e);
         }
         return false;
     }
@@ -1,17 +1,21 @@
 package com.example.auth.config;
 
 import com.example.auth.interceptor.AuthInterceptor;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -24,6 +28,22 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${file.upload.path:./uploads}")
     private String uploadPath;
 
+    // 异步请求目前只有订单导出，线程数与导出并发上限一致
+    @Value("${order.export.max-concurrent:4}")
+    private int exportMaxConcurrent;
+
+    @Value("${order.export.timeout-minutes:30}")
+    private long exportTimeoutMinutes;
+
+    private ThreadPoolTaskExecutor asyncExecutor;
+
+    @PreDestroy
+    public void shutdown() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         logger.info("配置拦截器，验证用户权限");
@@ -32,6 +52,20 @@ public class WebConfig implements WebMvcConfigurer {
                 .excludePathPatterns("/api/auth/login", "/api/auth/register");
     }
 
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        asyncExecutor = new ThreadPoolTaskExecutor();
+        asyncExecutor.setThreadNamePrefix("mvc-async-");
+        asyncExecutor.setCorePoolSize(exportMaxConcurrent);
+        asyncExecutor.setMaxPoolSize(exportMaxConcurrent);
+        asyncExecutor.setQueueCapacity(exportMaxConcurrent);
+        asyncExecutor.initialize();
+
+        configurer.setTaskExecutor(asyncExecutor);
+        // 导出耗时与数据量相关，超时覆盖整个写出过程
+        configurer.setDefaultTimeout(TimeUnit.MINUTES.toMillis(exportTimeoutMinutes));
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         logger.info("配置CORS，允许前端访问");
@@ -1,21 +1,30 @@
 package com.example.auth.config;
 
 import com.example.auth.util.JwtUtil;
+import com.example.auth.util.VerifiedToken;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
 import java.security.Principal;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -25,94 +34,201 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
     private final JwtUtil jwtUtil;
 
+    // 简单代理发送心跳使用的调度器
+    private final ThreadPoolTaskScheduler heartbeatScheduler;
+
+    // simple：进程内简单代理（默认）；relay：转发到外部STOMP代理
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${chat.broker.relay-host:localhost}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay-port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${chat.broker.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${chat.broker.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${chat.broker.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${chat.broker.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${chat.broker.heartbeat-send-interval-ms:10000}")
+    private long heartbeatSendIntervalMs;
+
+    @Value("${chat.broker.heartbeat-receive-interval-ms:10000}")
+    private long heartbeatReceiveIntervalMs;
+
+    @Value("${chat.websocket.inbound-pool-size:16}")
+    private int inboundPoolSize;
+
+    @Value("${chat.websocket.inbound-queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${chat.websocket.outbound-pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${chat.websocket.outbound-queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${chat.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${chat.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${chat.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
     public WebSocketConfig(JwtUtil jwtUtil) {
         this.jwtUtil = jwtUtil;
+        // 不注册为Bean，避免替换@Scheduled使用的调度器
+        this.heartbeatScheduler = new ThreadPoolTaskScheduler();
+        this.heartbeatScheduler.setPoolSize(1);
+        this.heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+        this.heartbeatScheduler.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdown();
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        // 注册STOMP端点，添加SockJS支持
-        logger.info("注册WebSocket端点: /ws");
-        registry.addEndpoint("/ws")
+        // 原生WebSocket端点，支持WebSocket的客户端直接连接，没有SockJS的帧封装和降级协商开销
+        registry.addEndpoint("/ws-native")
                 .setAllowedOriginPatterns("*")  // 允许所有来源
-                .setAllowedOrigins("http://localhost:5173")  // 明确添加Vite开发服务器
+                .setAllowedOrigins("http://localhost:5173");  // 明确添加Vite开发服务器
+        
+        // SockJS端点，供不支持WebSocket的环境降级使用
+        // iframe传输页面加载的客户端库须与前端打包的sockjs-client版本一致，使用本地托管的副本，不依赖CDN
+        registry.addEndpoint("/ws")
+                .setAllowedOriginPatterns("*")
+                .setAllowedOrigins("http://localhost:5173")
                 .withSockJS()
-                .setClientLibraryUrl("https://cdn.jsdelivr.net/npm/sockjs-client@1/dist/sockjs.min.js")  // 使用CDN上的SockJS客户端库
+                .setClientLibraryUrl("/js/sockjs-1.6.1.min.js")
                 .setWebSocketEnabled(true)  // 确保WebSocket传输启用
                 .setSessionCookieNeeded(false);  // 禁用会话cookie，简化开发
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // 限制单个会话的发送耗时和待发送缓冲，慢客户端超限后断开，不会拖住推送线程或占满内存
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // 配置消息代理
-        logger.info("配置WebSocket消息代理");
+        logger.info("配置WebSocket消息代理, 模式: {}", brokerMode);
         
         // 客户端发送消息的目的地前缀
         registry.setApplicationDestinationPrefixes("/app");
-        // 服务器向客户端推送消息的目的地前缀
-        registry.enableSimpleBroker("/user", "/topic");
-        // 为点对点通信设置前缀
+        // 为点对点通信设置前缀，/user/queue/xxx 解析为当前用户各会话的 /queue/xxx-user{sessionId}
         registry.setUserDestinationPrefix("/user");
         
+        long[] heartbeat = {heartbeatSendIntervalMs, heartbeatReceiveIntervalMs};
+        if ("relay".equals(brokerMode)) {
+            // 外部STOMP代理（RabbitMQ/ActiveMQ等），多节点共享订阅；
+            // 本节点找不到的用户目的地广播给其他节点解析，用户会话登记表在节点间同步
+            StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatSendIntervalMs)
+                    .setSystemHeartbeatReceiveInterval(heartbeatReceiveIntervalMs)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (relayVirtualHost != null && !relayVirtualHost.isEmpty()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            // 进程内简单代理，只能推送到本节点的会话
+            registry.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(heartbeat)
+                    .setTaskScheduler(heartbeatScheduler);
+        }
+        
         logger.info("WebSocket消息代理配置完成");
     }
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("ws-outbound-", outboundPoolSize, outboundQueueCapacity));
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        logger.info("配置WebSocket客户端入站通道拦截器");
-        
+        registration.taskExecutor(channelExecutor("ws-inbound-", inboundPoolSize, inboundQueueCapacity));
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
                 StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
                 
                 if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
-                    logger.info("收到STOMP CONNECT命令");
                     String token = accessor.getFirstNativeHeader("Authorization");
                     
                     if (token != null && token.startsWith("Bearer ")) {
                         token = token.substring(7);
-                        logger.info("从WebSocket连接中提取到JWT Token: {}", token.substring(0, Math.min(10, token.length())) + "...");
-                        
-                        // 验证Token
-                        if (jwtUtil.validateToken(token)) {
-                            try {
-                                // 从token提取用户ID
-                                Long userId = jwtUtil.getUserIdFromToken(token);
-                                logger.info("从JWT Token提取的用户ID: {}", userId);
-                                
-                                if (userId != null) {
-                                    // 设置用户ID为Principal名称
-                                    final Long finalUserId = userId;
-                                    accessor.setUser(() -> String.valueOf(finalUserId));
-                                    logger.info("WebSocket连接成功设置用户ID为Principal: {}", userId);
-                                } else {
-                                    logger.error("WebSocket连接失败: Token中未包含有效的用户ID");
-                                    return null; // 拒绝连接
-                                }
-                            } catch (Exception e) {
-                                logger.error("WebSocket连接设置Principal失败: {}", e.getMessage(), e);
+                        // 验证Token（只验签一次）
+                        VerifiedToken verified = jwtUtil.verify(token);
+                        if (verified != null) {
+                            Long userId = verified.getUserId();
+                            if (userId != null) {
+                                // 设置用户ID为Principal名称
+                                accessor.setUser(() -> String.valueOf(userId));
+                                logger.debug("WebSocket连接认证成功, userId={}", userId);
+                            } else {
+                                logger.debug("WebSocket连接失败: Token中未包含有效的用户ID");
                                 return null; // 拒绝连接
                             }
                         } else {
-                            logger.error("WebSocket连接JWT验证失败，Token无效");
+                            logger.debug("WebSocket连接JWT验证失败，Token无效");
                             return null; // 拒绝连接
                         }
                     } else {
-                        logger.error("WebSocket连接缺少Authorization头或格式不正确");
+                        logger.debug("WebSocket连接缺少Authorization头或格式不正确");
                         return null; // 拒绝连接
                     }
                 } else if (accessor != null && StompCommand.DISCONNECT.equals(accessor.getCommand())) {
                     Principal user = accessor.getUser();
                     if (user == null) {
-                        logger.error("消息中缺少用户身份信息，拒绝消息: {}", accessor.getCommand());
+                        logger.debug("消息中缺少用户身份信息，拒绝消息: {}", accessor.getCommand());
                         return null;
                     }
                 }
                 return message;
             }
         });
-        
-        logger.info("WebSocket客户端入站通道拦截器配置完成");
+    }
+
+    /**
+     * 客户端通道线程池：固定线程数、有界队列，队列满时由提交线程执行，形成背压而不是无限堆积
+     * 由框架注册为Bean并管理生命周期
+     */
+    private ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
     }
 } 
\ No newline at end of file
@@ -84,16 +84,7 @@ public class AdminCategoryController {
     @PostMapping("/batch")
     @RequireRole("ADMIN")
     public ResponseEntity<Map<String, Object>> batchCreateCategories(@RequestBody List<CategoryDTO> categories) {
-        int successCount = 0;
-        
-        for (CategoryDTO categoryDTO : categories) {
-            try {
-                categoryService.createCategory(categoryDTO);
-                successCount++;
-            } catch (Exception e) {
-                // 记录失败的情况，但继续处理
-            }
-        }
+        int successCount = categoryService.batchCreateCategories(categories);
         
         Map<String, Object> result = new HashMap<>();
         result.put("totalCount", categories.size());
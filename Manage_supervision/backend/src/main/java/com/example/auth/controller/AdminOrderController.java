@@ -1,13 +1,24 @@
 package com.example.auth.controller;
 
+import com.example.auth.annotation.RequireRole;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.example.auth.common.exception.BusinessException;
+import com.example.auth.common.util.TokenUtil;
 import com.example.auth.model.dto.OrderDTO;
+import com.example.auth.service.OrderExportService;
 import com.example.auth.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 /**
@@ -20,6 +31,15 @@ public class AdminOrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * 获取所有订单列表（分页）
      */
@@ -41,6 +61,29 @@ public class AdminOrderController {
         }
     }
 
+    /**
+     * 导出订单（CSV，每个订单商品一行，流式写出），筛选条件与订单列表一致
+     */
+    @RequireRole("ADMIN")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) String orderNumber,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long userId) {
+        Long operatorId = tokenUtil.getUserId();
+        if (operatorId == null) {
+            return errorResponse(400, "请先登录");
+        }
+
+        try {
+            StreamingResponseBody body = orderExportService.exportAllOrders(operatorId, orderNumber, status, userId);
+            String fileName = "orders-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + ".csv";
+            return csvResponse(fileName, body);
+        } catch (BusinessException e) {
+            return errorResponse(e.getCode(), e.getMessage());
+        }
+    }
+
     /**
      * 获取订单详情
      */
@@ -101,4 +144,17 @@ public class AdminOrderController {
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", "取消订单失败"));
         }
     }
+
+    private ResponseEntity<StreamingResponseBody> csvResponse(String fileName, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> errorResponse(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, Map.of("success", false, "message", message)));
+    }
 } 
\ No newline at end of file
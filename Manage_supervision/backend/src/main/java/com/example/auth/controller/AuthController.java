@@ -1,6 +1,7 @@
 package com.example.auth.controller;
 
 import com.example.auth.annotation.RequireRole;
+import com.example.auth.common.exception.BusinessException;
 import com.example.auth.model.dto.ChangePasswordRequest;
 import com.example.auth.model.entity.User;
 import com.example.auth.model.entity.Role;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -57,7 +59,16 @@ public class AuthController {
         String password = request.get("password");
 
         User user = userService.findByUsername(username);
-        if (user == null || !userService.validatePassword(user, password)) {
+        boolean passwordMatches;
+        try {
+            passwordMatches = user != null && userService.validatePassword(user, password);
+        } catch (BusinessException e) {
+            // 密码校验线程池已满，快速失败
+            return ResponseEntity.status(e.getCode()).body(Map.of(
+                "message", e.getMessage()
+            ));
+        }
+        if (!passwordMatches) {
             return ResponseEntity.badRequest().body(Map.of(
                 "message", "用户名或密码错误"
             ));
@@ -70,8 +81,10 @@ public class AuthController {
             ));
         }
 
-        // 使用新的generateToken方法，包含用户ID
-        String token = jwtUtil.generateToken(username, user.getId());
+        // Token中包含用户ID、角色和令牌版本，拦截器据此无状态授权
+        List<String> roleNames = user.getRoles().stream().map(Role::getName).toList();
+        int tokenVersion = user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+        String token = jwtUtil.generateToken(username, user.getId(), roleNames, tokenVersion);
         
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
@@ -142,9 +155,8 @@ public class AuthController {
         @RequestBody ChangePasswordRequest request
     ) {
         try {
-            String token = auth.substring(7);
-            String username = jwtUtil.getUsernameFromToken(token);
-            User user = userService.findByUsername(username);
+            // 拦截器已解析当前用户，直接复用
+            User user = userContext.getCurrentUser();
 
             userService.changePassword(user, request.getCurrentPassword(), request.getNewPassword());
             
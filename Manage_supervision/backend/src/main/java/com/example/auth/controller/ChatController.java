@@ -2,10 +2,13 @@ package com.example.auth.controller;
 
 import com.example.auth.model.dto.ChatMessageDTO;
 import com.example.auth.model.dto.ConversationDTO;
+import com.example.auth.model.dto.CursorPageResponse;
 import com.example.auth.model.entity.User;
 import com.example.auth.util.UserContext;
 import com.example.auth.service.ChatService;
 import com.example.auth.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -20,6 +23,8 @@ import java.util.Map;
 @RequestMapping("/api/chat")
 public class ChatController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
+
     private final ChatService chatService;
     private final UserService userService;
     private final UserContext userContext;
@@ -107,6 +112,32 @@ public class ChatController {
         return ResponseEntity.ok(messages);
     }
 
+    /**
+     * 按消息提交顺序号seq游标查询会话历史（升序），before向前翻页，after用于断线重连后的增量同步
+     * before/after取消息的seq或上一页返回的nextCursor
+     */
+    @GetMapping("/conversations/{conversationId}/history")
+    public ResponseEntity<CursorPageResponse<ChatMessageDTO>> getMessageHistory(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        // 检查用户认证
+        User currentUser = userContext.getCurrentUser();
+        if (currentUser == null) {
+            // 用户未认证或获取用户信息失败
+            return ResponseEntity.status(401).body(null);
+        }
+        
+        // 只有会话双方可以查看历史消息
+        if (!chatService.isParticipant(conversationId, currentUser.getId())) {
+            return ResponseEntity.status(403).body(null);
+        }
+        
+        return ResponseEntity.ok(chatService.getMessageHistory(conversationId, before, after, size));
+    }
+
     /**
      * 将会话中的所有消息标记为已读
      */
@@ -158,34 +189,30 @@ public class ChatController {
     public void sendMessage(@Payload Map<String, Object> payload, Principal principal) {
         try {
             if (principal == null) {
-                System.err.println("发送消息失败: Principal为空");
+                logger.warn("发送消息失败: Principal为空");
                 return;
             }
             
             String principalName = principal.getName();
-            System.out.println("处理WebSocket消息发送请求，Principal: " + principalName);
-            
             Long senderId = null;
             
             try {
                 senderId = Long.valueOf(principalName);
-                System.out.println("成功将Principal名称转换为senderId: " + senderId);
-                
                 // 验证用户ID是否存在
                 User sender = userService.findById(senderId);
                 if (sender == null) {
                     String errorMsg = "发送者不存在 (ID: " + senderId + ")";
-                    System.err.println(errorMsg);
+                    logger.warn(errorMsg);
                     chatService.sendErrorNotification(senderId, errorMsg);
                     return;
                 }
             } catch (NumberFormatException e) {
-                System.err.println("发送消息失败: Principal名称不是有效的用户ID - " + principalName + ", 异常: " + e.getMessage());
+                logger.warn("发送消息失败: Principal名称不是有效的用户ID - {}", principalName);
                 return;
             }
             
             if (payload == null) {
-                System.err.println("发送消息失败: 载荷为空");
+                logger.warn("发送消息失败: 载荷为空");
                 return;
             }
             
@@ -193,13 +220,13 @@ public class ChatController {
             Object contentObj = payload.get("content");
             
             if (recipientIdObj == null) {
-                System.err.println("发送消息失败: 缺少接收者ID");
+                logger.warn("发送消息失败: 缺少接收者ID");
                 chatService.sendErrorNotification(senderId, "缺少接收者ID");
                 return;
             }
             
             if (contentObj == null) {
-                System.err.println("发送消息失败: 缺少消息内容");
+                logger.warn("发送消息失败: 缺少消息内容");
                 chatService.sendErrorNotification(senderId, "缺少消息内容");
                 return;
             }
@@ -212,13 +239,13 @@ public class ChatController {
                 User recipient = userService.findById(recipientId);
                 if (recipient == null) {
                     String errorMsg = "接收者不存在 (ID: " + recipientId + ")";
-                    System.err.println(errorMsg);
+                    logger.warn(errorMsg);
                     chatService.sendErrorNotification(senderId, errorMsg);
                     return;
                 }
             } catch (NumberFormatException e) {
                 String errorMsg = "接收者ID不是有效的数字 - " + recipientIdObj;
-                System.err.println(errorMsg + ", 异常: " + e.getMessage());
+                logger.warn("{}, 异常: {}", errorMsg, e.getMessage());
                 chatService.sendErrorNotification(senderId, errorMsg);
                 return;
             }
@@ -231,7 +258,7 @@ public class ChatController {
             String fileType = payload.get("fileType") != null ? payload.get("fileType").toString() : null;
             Long fileSize = payload.get("fileSize") != null ? Long.valueOf(payload.get("fileSize").toString()) : null;
             
-            System.out.println("准备通过WebSocket发送消息，发送者ID: " + senderId + ", 接收者ID: " + recipientId);
+            logger.debug("通过WebSocket发送消息, senderId={}, recipientId={}", senderId, recipientId);
             
             try {
                 if (fileUrl != null) {
@@ -242,13 +269,12 @@ public class ChatController {
                     chatService.sendMessage(senderId, recipientId, content);
                 }
             } catch (RuntimeException e) {
-                System.err.println("发送消息时服务层抛出异常: " + e.getMessage());
+                logger.warn("发送消息时服务层抛出异常: {}", e.getMessage());
                 chatService.sendErrorNotification(senderId, e.getMessage());
                 throw e;
             }
         } catch (Exception e) {
-            System.err.println("WebSocket消息处理发生异常: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("WebSocket消息处理发生异常", e);
         }
     }
 
@@ -294,12 +320,12 @@ public class ChatController {
         // 用户已在WebSocketConfig中通过JWT验证并设置了principal
         try {
             if (principal != null) {
-                System.out.println("用户连接WebSocket，Principal: " + principal.getName());
+                logger.debug("用户连接WebSocket, Principal: {}", principal.getName());
             } else {
-                System.err.println("用户连接WebSocket，但Principal为空");
+                logger.warn("用户连接WebSocket，但Principal为空");
             }
         } catch (Exception e) {
-            System.err.println("处理WebSocket连接时发生异常: " + e.getMessage());
+            logger.error("处理WebSocket连接时发生异常", e);
         }
     }
 } 
\ No newline at end of file
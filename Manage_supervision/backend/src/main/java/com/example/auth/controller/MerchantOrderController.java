@@ -1,14 +1,25 @@
 package com.example.auth.controller;
 
+import com.example.auth.annotation.RequireRole;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.example.auth.common.exception.BusinessException;
 import com.example.auth.common.util.TokenUtil;
+import com.example.auth.model.dto.CursorPageResponse;
 import com.example.auth.model.dto.OrderDTO;
+import com.example.auth.service.OrderExportService;
 import com.example.auth.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 @RestController
@@ -18,9 +29,15 @@ public class MerchantOrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExportService orderExportService;
+
     @Autowired
     private TokenUtil tokenUtil;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * 获取商家订单列表
      */
@@ -42,6 +59,49 @@ public class MerchantOrderController {
         }
     }
 
+    /**
+     * 游标分页获取商家订单列表（不返回总数）
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<?> getMerchantOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        Long merchantId = tokenUtil.getUserId();
+        if (merchantId == null) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "请先登录"));
+        }
+
+        try {
+            CursorPageResponse<OrderDTO> orders = orderService.getMerchantOrdersByCursor(merchantId, cursor, size);
+            return ResponseEntity.ok(Map.of("success", true, "data", orders));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "获取订单列表失败"));
+        }
+    }
+
+    /**
+     * 导出商家订单（CSV，每个订单商品一行，流式写出）
+     */
+    @RequireRole("MERCHANT")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMerchantOrders() {
+        Long merchantId = tokenUtil.getUserId();
+        if (merchantId == null) {
+            return errorResponse(400, "请先登录");
+        }
+
+        try {
+            StreamingResponseBody body = orderExportService.exportMerchantOrders(merchantId);
+            String fileName = "orders-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + ".csv";
+            return csvResponse(fileName, body);
+        } catch (BusinessException e) {
+            return errorResponse(e.getCode(), e.getMessage());
+        }
+    }
+
     /**
      * 获取商家售后订单列表
      */
@@ -63,6 +123,29 @@ public class MerchantOrderController {
         }
     }
 
+    /**
+     * 游标分页获取商家售后订单列表（不返回总数）
+     */
+    @GetMapping("/after-sale/cursor")
+    public ResponseEntity<?> getMerchantAfterSaleOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        Long merchantId = tokenUtil.getUserId();
+        if (merchantId == null) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "请先登录"));
+        }
+
+        try {
+            CursorPageResponse<OrderDTO> orders = orderService.getMerchantAfterSaleOrdersByCursor(merchantId, cursor, size);
+            return ResponseEntity.ok(Map.of("success", true, "data", orders));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "获取售后订单列表失败"));
+        }
+    }
+
     /**
      * 获取订单详情
      */
@@ -135,4 +218,17 @@ public class MerchantOrderController {
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", "处理售后申请失败"));
         }
     }
+
+    private ResponseEntity<StreamingResponseBody> csvResponse(String fileName, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> errorResponse(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, Map.of("success", false, "message", message)));
+    }
 } 
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.example.auth.common.exception.BusinessException;
 import com.example.auth.common.util.TokenUtil;
 import com.example.auth.model.dto.CreateOrderRequest;
+import com.example.auth.model.dto.CursorPageResponse;
 import com.example.auth.model.dto.OrderDTO;
 import com.example.auth.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -64,6 +65,29 @@ public class OrderController {
         }
     }
 
+    /**
+     * 游标分页获取用户订单列表（不返回总数）
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<?> getUserOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        Long userId = tokenUtil.getUserId();
+        if (userId == null) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "请先登录"));
+        }
+
+        try {
+            CursorPageResponse<OrderDTO> orders = orderService.getUserOrdersByCursor(userId, cursor, size);
+            return ResponseEntity.ok(Map.of("success", true, "data", orders));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "获取订单列表失败"));
+        }
+    }
+
     /**
      * 获取订单详情
      */
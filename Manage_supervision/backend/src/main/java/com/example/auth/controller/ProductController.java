@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
@@ -58,9 +60,14 @@ public class ProductController {
     @GetMapping("/search")
     public ResponseEntity<PageResponse<ProductDTO>> searchProducts(
             @RequestParam String keyword,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer minStock,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size) {
-        PageResponse<ProductDTO> response = productService.searchProducts(keyword, page, size);
+        PageResponse<ProductDTO> response = productService.searchProducts(keyword, categoryId, minPrice, maxPrice,
+                minStock, page, size);
         return ResponseEntity.ok(response);
     }
 } 
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.example.auth.interceptor;
 
 import com.example.auth.annotation.RequireRole;
+import com.example.auth.common.cache.TokenVersionRegistry;
+import com.example.auth.model.entity.Role;
 import com.example.auth.model.entity.User;
-import com.example.auth.service.UserService;
 import com.example.auth.util.JwtUtil;
+import com.example.auth.util.UserContext;
+import com.example.auth.util.VerifiedToken;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -14,11 +20,23 @@ import org.springframework.web.servlet.HandlerInterceptor;
 @Component
 public class AuthInterceptor implements HandlerInterceptor {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthInterceptor.class);
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserService userService;
+    private UserContext userContext;
+
+    @Autowired
+    private RoleAuthorizer roleAuthorizer;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    // claims：信任Token中签名的角色；database：每次从用户角色缓存读取
+    @Value("${auth.authorization.mode:claims}")
+    private String authorizationMode;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
@@ -35,79 +53,55 @@ public class AuthInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        // 记录请求路径和所需角色
-        System.out.println("请求拦截: " + request.getRequestURI() + ", 需要角色: " + requireRole.value());
-
         // 获取token
-        String token = request.getHeader("Authorization");
-        if (token == null || !token.startsWith("Bearer ")) {
-            System.out.println("认证失败: Token为空或格式错误");
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            logger.debug("认证失败: Token为空或格式错误 - {}", request.getRequestURI());
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return false;
         }
 
-        token = token.substring(7);
-        System.out.println("Token: " + token.substring(0, Math.min(10, token.length())) + "...");
-
-        // 验证token
-        if (!jwtUtil.validateToken(token)) {
-            System.out.println("认证失败: Token无效");
+        VerifiedToken token = jwtUtil.verify(authHeader.substring(7));
+        if (token == null) {
+            logger.debug("认证失败: Token无效 - {}", request.getRequestURI());
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return false;
         }
 
-        // 获取用户信息
-        String username = jwtUtil.getUsernameFromToken(token);
-        User user = userService.findByUsername(username);
-        if (user == null) {
-            System.out.println("认证失败: 用户不存在 - " + username);
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            return false;
-        }
-        
-        // 检查用户状态
-        if ("inactive".equals(user.getStatus())) {
-            System.out.println("认证失败: 用户已被禁用 - " + username);
-            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-            return false;
-        }
-
-        // 简化角色验证逻辑：直接字符串比较
-        String requiredRole = requireRole.value();
-        boolean hasRole = false;
-
-        System.out.println("用户: " + username + ", 角色: " + user.getRoles());
-
-        // 直接使用简单字符串比对
-        for (var role : user.getRoles()) {
-            String roleName = role.getName();
-            System.out.println("比对角色: " + roleName + " vs 需要: " + requiredRole);
-            
-            // 不区分大小写比较
-            if (roleName.equalsIgnoreCase(requiredRole)) {
-                hasRole = true;
-                break;
+        long roleMask;
+        if ("claims".equalsIgnoreCase(authorizationMode) && token.getUserId() != null && !token.getRoles().isEmpty()) {
+            // 无状态授权：角色来自签名的Token，禁用、重置密码、变更角色会递增令牌版本使旧Token失效
+            if (!tokenVersionRegistry.isCurrent(token.getUserId(), token.getTokenVersion())) {
+                logger.debug("认证失败: Token已被吊销 - {}", token.getSubject());
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return false;
             }
-            
-            // 实现角色层级：ADMIN具有所有权限，MERCHANT具有USER权限
-            if (roleName.equalsIgnoreCase("ADMIN")) {
-                // 管理员拥有所有权限
-                hasRole = true;
-                break;
-            } else if (roleName.equalsIgnoreCase("MERCHANT") && requiredRole.equalsIgnoreCase("USER")) {
-                // 商家拥有用户权限
-                hasRole = true;
-                break;
+            roleMask = roleAuthorizer.roleMask(token.getRoles());
+        } else {
+            // 旧Token未携带角色时，从用户缓存读取角色和状态
+            User user = userContext.resolve(request);
+            if (user == null) {
+                logger.debug("认证失败: 用户不存在 - {}", token.getSubject());
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return false;
+            }
+
+            // 检查用户状态
+            if ("inactive".equals(user.getStatus())) {
+                logger.debug("认证失败: 用户已被禁用 - {}", user.getUsername());
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return false;
             }
+            roleMask = roleAuthorizer.roleMask(user.getRoles().stream().map(Role::getName).toList());
         }
 
-        if (!hasRole) {
-            System.out.println("认证失败: 权限不足，没有所需角色 - " + requiredRole);
+        // 角色层级已预编译进掩码：ADMIN具有所有权限，MERCHANT具有USER权限
+        if (!roleAuthorizer.isAuthorized(roleMask, roleAuthorizer.requiredMask(handlerMethod, requireRole))) {
+            logger.debug("认证失败: 权限不足，没有所需角色 - {}", requireRole.value());
             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
             return false;
         }
 
-        System.out.println("认证成功: 用户 " + username + " 拥有所需角色 " + requiredRole);
         return true;
     }
-} 
\ No newline at end of file
+}
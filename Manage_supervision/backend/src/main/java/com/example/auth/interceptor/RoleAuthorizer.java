@@ -0,0 +1,98 @@
+package com.example.auth.interceptor;
+
+import com.example.auth.annotation.RequireRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于位掩码的角色授权
+ *
+ * 每个角色名分配一个位，@RequireRole在启动时预编译为"满足要求的角色"掩码
+ * （角色层级：ADMIN拥有所有权限，MERCHANT拥有USER权限），
+ * 请求时只需把用户角色掩码与之按位与。
+ */
+@Component
+public class RoleAuthorizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleAuthorizer.class);
+
+    private static final int MAX_ROLES = Long.SIZE;
+
+    private final Map<String, Long> roleBits = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextBit = new AtomicInteger();
+
+    private final Map<Method, Long> requiredMasks = new ConcurrentHashMap<>();
+
+    /**
+     * 启动时预编译所有@RequireRole处理方法
+     */
+    @EventListener
+    public void compile(ApplicationReadyEvent event) {
+        RequestMappingHandlerMapping handlerMapping = event.getApplicationContext()
+                .getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods().values()) {
+            RequireRole requireRole = handlerMethod.getMethodAnnotation(RequireRole.class);
+            if (requireRole != null) {
+                requiredMasks.put(handlerMethod.getMethod(), compile(requireRole.value()));
+            }
+        }
+        logger.info("已预编译 {} 个@RequireRole处理方法", requiredMasks.size());
+    }
+
+    /**
+     * 获取处理方法要求的角色掩码
+     */
+    public long requiredMask(HandlerMethod handlerMethod, RequireRole requireRole) {
+        return requiredMasks.computeIfAbsent(handlerMethod.getMethod(), method -> compile(requireRole.value()));
+    }
+
+    /**
+     * 计算一组角色名对应的掩码
+     */
+    public long roleMask(Collection<String> roleNames) {
+        long mask = 0L;
+        for (String roleName : roleNames) {
+            mask |= bit(roleName);
+        }
+        return mask;
+    }
+
+    /**
+     * 判断角色掩码是否满足要求
+     */
+    public boolean isAuthorized(long roleMask, long requiredMask) {
+        return (roleMask & requiredMask) != 0;
+    }
+
+    private long compile(String requiredRole) {
+        long mask = bit(requiredRole) | bit("ADMIN");
+        if ("USER".equalsIgnoreCase(requiredRole)) {
+            mask |= bit("MERCHANT");
+        }
+        return mask;
+    }
+
+    private long bit(String roleName) {
+        return roleBits.computeIfAbsent(roleName.toUpperCase(Locale.ROOT), name -> {
+            int index = nextBit.getAndIncrement();
+            if (index >= MAX_ROLES) {
+                logger.warn("角色数量超过{}个，角色 {} 不参与位掩码授权", MAX_ROLES, name);
+                return 0L;
+            }
+            return 1L << index;
+        });
+    }
+}
@@ -22,4 +22,14 @@ public interface CategoryMapper extends BaseMapper<Category> {
      */
     @Select("SELECT * FROM categories WHERE parent_id IS NULL OR parent_id = 0")
     List<Category> findRootCategories();
+
+    /**
+     * 从数据库递归查询分类及其所有子孙分类的ID
+     */
+    @Select("WITH RECURSIVE subtree AS (" +
+            "SELECT id FROM categories WHERE id = #{id} " +
+            "UNION ALL " +
+            "SELECT c.id FROM categories c JOIN subtree s ON c.parent_id = s.id" +
+            ") SELECT id FROM subtree")
+    List<Long> findSubtreeIds(@Param("id") Long id);
 } 
\ No newline at end of file
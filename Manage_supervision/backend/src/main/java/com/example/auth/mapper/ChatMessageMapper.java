@@ -4,11 +4,13 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.example.auth.model.entity.ChatMessage;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -27,14 +29,33 @@ public interface ChatMessageMapper extends BaseMapper<ChatMessage> {
     IPage<ChatMessage> findByConversationIdOrderBySentTimeDesc(Page<ChatMessage> page, @Param("conversationId") Long conversationId);
     
     /**
-     * 查询比指定消息ID更早的消息
+     * 按(conversation_id, seq)索引向前定位，查询指定顺序号之前最多limit条消息（按seq降序），不执行COUNT
+     * @param beforeSeq 为null时从最新消息开始
      */
-    @Select("SELECT * FROM chat_messages WHERE conversation_id = #{conversationId} AND id < #{messageId} ORDER BY sent_time DESC")
-    IPage<ChatMessage> findOlderMessages(
-        Page<ChatMessage> page,
-        @Param("conversationId") Long conversationId,
-        @Param("messageId") Long messageId
-    );
+    @Select("<script>" +
+            "SELECT * FROM chat_messages WHERE conversation_id = #{conversationId} " +
+            "<if test='beforeSeq != null'>AND seq &lt; #{beforeSeq} </if>" +
+            "ORDER BY seq DESC LIMIT #{limit}" +
+            "</script>")
+    List<ChatMessage> findBeforeSeq(@Param("conversationId") Long conversationId,
+                                    @Param("beforeSeq") Long beforeSeq,
+                                    @Param("limit") int limit);
+    
+    /**
+     * 按(conversation_id, seq)索引向后定位，查询指定顺序号之后最多limit条消息（按seq升序），用于断线重连后增量同步
+     * seq按提交顺序分配，游标之后提交的消息顺序号一定更大，不会被跳过
+     */
+    @Select("SELECT * FROM chat_messages WHERE conversation_id = #{conversationId} AND seq > #{afterSeq} " +
+            "ORDER BY seq ASC LIMIT #{limit}")
+    List<ChatMessage> findAfterSeq(@Param("conversationId") Long conversationId,
+                                   @Param("afterSeq") Long afterSeq,
+                                   @Param("limit") int limit);
+    
+    /**
+     * 查询消息的提交顺序号
+     */
+    @Select("SELECT seq FROM chat_messages WHERE id = #{id}")
+    Long findSeqById(@Param("id") Long id);
     
     /**
      * 将会话中特定用户的未读消息标记为已读
@@ -51,8 +72,35 @@ public interface ChatMessageMapper extends BaseMapper<ChatMessage> {
     int countUnreadMessages(@Param("conversationId") Long conversationId, @Param("recipientId") Long recipientId);
     
     /**
-     * 计算用户的所有未读消息数
+     * 查询已经写入的消息ID，用于识别重试前其实已提交的消息
+     */
+    @Select("<script>" +
+            "SELECT id FROM chat_messages WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 批量写入消息（ID已预先分配），外键、截断等错误直接抛出，由调用方重试或转入死信
+     */
+    @Insert("<script>" +
+            "INSERT INTO chat_messages " +
+            "(id, conversation_id, sender_id, recipient_id, content, sent_time, is_read, " +
+            "file_url, file_name, file_type, file_size, seq) VALUES " +
+            "<foreach collection='messages' item='m' separator=','>" +
+            "(#{m.id}, #{m.conversationId}, #{m.senderId}, #{m.recipientId}, #{m.content}, #{m.sentTime}, #{m.read}, " +
+            "#{m.fileUrl}, #{m.fileName}, #{m.fileType}, #{m.fileSize}, #{m.seq})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("messages") List<ChatMessage> messages);
+    
+    /**
+     * 记录无法写入的消息（死信），保留原始内容和失败原因以便排查
      */
-    @Select("SELECT COUNT(*) FROM chat_messages WHERE recipient_id = #{recipientId} AND is_read = false")
-    int countTotalUnreadMessagesByUser(@Param("recipientId") Long recipientId);
-} 
\ No newline at end of file
+    @Insert("INSERT IGNORE INTO chat_message_dead_letters " +
+            "(id, conversation_id, sender_id, recipient_id, content, sent_time, " +
+            "file_url, file_name, file_type, file_size, error, create_time) VALUES " +
+            "(#{m.id}, #{m.conversationId}, #{m.senderId}, #{m.recipientId}, #{m.content}, #{m.sentTime}, " +
+            "#{m.fileUrl}, #{m.fileName}, #{m.fileType}, #{m.fileSize}, LEFT(#{error}, 1000), NOW())")
+    int insertDeadLetter(@Param("m") ChatMessage message, @Param("error") String error);
+}
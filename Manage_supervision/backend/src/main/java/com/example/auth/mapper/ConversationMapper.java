@@ -2,23 +2,44 @@ package com.example.auth.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.example.auth.model.entity.Conversation;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ConversationMapper extends BaseMapper<Conversation> {
     
     /**
-     * 根据两个用户ID查找会话
+     * 根据两个用户ID查找会话，按规范化用户对走唯一索引点查，与参数顺序无关
      */
     @Select("SELECT * FROM conversations WHERE " +
-            "(user1_id = #{user1Id} AND user2_id = #{user2Id}) OR " +
-            "(user1_id = #{user2Id} AND user2_id = #{user1Id}) LIMIT 1")
+            "user_low_id = LEAST(#{user1Id}, #{user2Id}) AND user_high_id = GREATEST(#{user1Id}, #{user2Id})")
     Conversation findByUserIds(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
     
+    /**
+     * 加共享锁读取两个用户之间的会话，读取的是最新提交的数据而不是事务快照
+     */
+    @Select("SELECT * FROM conversations WHERE " +
+            "user_low_id = LEAST(#{user1Id}, #{user2Id}) AND user_high_id = GREATEST(#{user1Id}, #{user2Id}) " +
+            "FOR SHARE")
+    Conversation lockByUserIds(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+    
+    /**
+     * 创建会话，同一对用户的会话已存在时不做任何修改（由唯一索引uk_conversations_user_pair保证）
+     */
+    @Insert("INSERT INTO conversations (user1_id, user2_id, created_time, last_message_time) " +
+            "VALUES (#{user1Id}, #{user2Id}, #{now}, #{now}) " +
+            "ON DUPLICATE KEY UPDATE id = id")
+    int insertIgnore(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id,
+                     @Param("now") LocalDateTime now);
+    
     /**
      * 查询用户参与的所有会话，按最后消息时间降序排序
      */
@@ -27,10 +48,45 @@ public interface ConversationMapper extends BaseMapper<Conversation> {
     List<Conversation> findByUserIdOrderByLastMessageTimeDesc(@Param("userId") Long userId);
     
     /**
-     * 计算用户有未读消息的会话数
+     * 按ID顺序锁定一批会话并读取双方当前未读数
+     */
+    @Select("<script>" +
+            "SELECT id, user1_id, user2_id, unread_count_user1, unread_count_user2 FROM conversations " +
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "ORDER BY id FOR UPDATE" +
+            "</script>")
+    List<Conversation> lockUnreadCounts(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 一次性累加多个会话的未读数并推进最后消息时间
+     * @param unreadUser1 会话ID -> user1新增未读数
+     * @param unreadUser2 会话ID -> user2新增未读数
+     * @param lastMessageTimes 会话ID -> 本批最后一条消息时间
+     */
+    @Update("<script>" +
+            "UPDATE conversations SET " +
+            "unread_count_user1 = unread_count_user1 + CASE id " +
+            "<foreach collection='unreadUser1' index='id' item='count'>WHEN #{id} THEN #{count} </foreach>" +
+            "ELSE 0 END, " +
+            "unread_count_user2 = unread_count_user2 + CASE id " +
+            "<foreach collection='unreadUser2' index='id' item='count'>WHEN #{id} THEN #{count} </foreach>" +
+            "ELSE 0 END, " +
+            "last_message_time = GREATEST(COALESCE(last_message_time, created_time), CASE id " +
+            "<foreach collection='lastMessageTimes' index='id' item='time'>WHEN #{id} THEN #{time} </foreach>" +
+            "END) " +
+            "WHERE id IN " +
+            "<foreach collection='lastMessageTimes' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int applyMessageStats(@Param("unreadUser1") Map<Long, Integer> unreadUser1,
+                          @Param("unreadUser2") Map<Long, Integer> unreadUser2,
+                          @Param("lastMessageTimes") Map<Long, LocalDateTime> lastMessageTimes);
+    
+    /**
+     * 清零会话中指定用户的未读数，不覆盖对方的计数和最后消息时间
      */
-    @Select("SELECT COUNT(*) FROM conversations WHERE " +
-            "((user1_id = #{userId} AND unread_count_user1 > 0) OR " +
-            "(user2_id = #{userId} AND unread_count_user2 > 0))")
-    int countConversationsWithUnreadMessages(@Param("userId") Long userId);
-} 
\ No newline at end of file
+    @Update("UPDATE conversations SET " +
+            "unread_count_user1 = CASE WHEN user1_id = #{userId} THEN 0 ELSE unread_count_user1 END, " +
+            "unread_count_user2 = CASE WHEN user2_id = #{userId} THEN 0 ELSE unread_count_user2 END " +
+            "WHERE id = #{conversationId}")
+    int resetUnreadCount(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+}
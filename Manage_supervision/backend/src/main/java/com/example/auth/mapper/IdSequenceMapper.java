@@ -0,0 +1,50 @@
+package com.example.auth.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface IdSequenceMapper {
+    
+    /**
+     * 初始化聊天消息ID序列，从现有最大消息ID之后开始，已存在时忽略
+     */
+    @Insert("INSERT IGNORE INTO id_sequences (name, next_id) " +
+            "SELECT 'chat_message', COALESCE(MAX(id), 0) + 1 FROM chat_messages")
+    int initChatMessageSequence();
+    
+    /**
+     * 初始化聊天消息提交顺序号序列，从现有最大顺序号之后开始，已存在时忽略
+     */
+    @Insert("INSERT IGNORE INTO id_sequences (name, next_id) " +
+            "SELECT 'chat_message_seq', COALESCE(MAX(seq), 0) + 1 FROM chat_messages")
+    int initChatMessageSeqSequence();
+    
+    /**
+     * 锁定序列并返回下一个可用ID
+     */
+    @Select("SELECT next_id FROM id_sequences WHERE name = #{name} FOR UPDATE")
+    Long lockNextId(@Param("name") String name);
+    
+    /**
+     * 序列前进指定步长
+     */
+    @Update("UPDATE id_sequences SET next_id = next_id + #{size} WHERE name = #{name}")
+    int advance(@Param("name") String name, @Param("size") int size);
+    
+    /**
+     * 查询序列的当前值，序列不存在时返回null
+     */
+    @Select("SELECT next_id FROM id_sequences WHERE name = #{name}")
+    Long findNextId(@Param("name") String name);
+    
+    /**
+     * 把序列提高到指定值，序列不存在时创建，当前值更大时保持不变
+     */
+    @Insert("INSERT INTO id_sequences (name, next_id) VALUES (#{name}, #{value}) " +
+            "ON DUPLICATE KEY UPDATE next_id = GREATEST(next_id, VALUES(next_id))")
+    int raiseTo(@Param("name") String name, @Param("value") long value);
+}
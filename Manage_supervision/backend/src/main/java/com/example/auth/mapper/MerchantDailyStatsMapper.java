@@ -0,0 +1,82 @@
+package com.example.auth.mapper;
+
+import com.example.auth.model.entity.MerchantDailyStats;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface MerchantDailyStatsMapper {
+    
+    /**
+     * 批量累加统计变化量，(merchant_id, day, status)不存在时插入新行
+     * 调用方应按主键排序，保证并发更新时加锁顺序一致
+     */
+    @Insert("<script>" +
+            "INSERT INTO merchant_daily_stats (merchant_id, day, status, revenue, refunds, order_count) VALUES " +
+            "<foreach collection='deltas' item='d' separator=','>" +
+            "(#{d.merchantId}, #{d.day}, #{d.status}, #{d.revenue}, #{d.refunds}, #{d.orderCount})" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE " +
+            "revenue = revenue + VALUES(revenue), " +
+            "refunds = refunds + VALUES(refunds), " +
+            "order_count = order_count + VALUES(order_count)" +
+            "</script>")
+    int applyDeltas(@Param("deltas") Collection<MerchantDailyStats> deltas);
+    
+    /**
+     * 按状态汇总商家的全部统计（金额、退款、订单数）
+     */
+    @Select("SELECT status, SUM(revenue) AS revenue, SUM(refunds) AS refunds, SUM(order_count) AS order_count " +
+            "FROM merchant_daily_stats WHERE merchant_id = #{merchantId} GROUP BY status")
+    List<MerchantDailyStats> sumByStatus(@Param("merchantId") Long merchantId);
+    
+    /**
+     * 按天汇总商家指定日期之后的统计：revenue为当天创建且已完成订单的金额，order_count为当天创建的全部订单数
+     */
+    @Select("SELECT day, " +
+            "SUM(CASE WHEN status = 'completed' THEN revenue ELSE 0 END) AS revenue, " +
+            "SUM(refunds) AS refunds, SUM(order_count) AS order_count " +
+            "FROM merchant_daily_stats WHERE merchant_id = #{merchantId} AND day >= #{fromDay} " +
+            "GROUP BY day ORDER BY day")
+    List<MerchantDailyStats> sumByDaySince(@Param("merchantId") Long merchantId, @Param("fromDay") LocalDate fromDay);
+    
+    /**
+     * 是否已有统计数据
+     */
+    @Select("SELECT EXISTS (SELECT 1 FROM merchant_daily_stats)")
+    boolean hasAny();
+    
+    /**
+     * 删除商家的全部统计，重建前调用
+     */
+    @Delete("DELETE FROM merchant_daily_stats WHERE merchant_id = #{merchantId}")
+    int deleteByMerchantId(@Param("merchantId") Long merchantId);
+    
+    /**
+     * 从订单明细重建商家按创建日期、订单状态的金额和订单数
+     */
+    @Insert("INSERT INTO merchant_daily_stats (merchant_id, day, status, revenue, refunds, order_count) " +
+            "SELECT oi.merchant_id, DATE(o.create_time), o.status, SUM(oi.subtotal), 0, COUNT(DISTINCT o.id) " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+            "WHERE oi.merchant_id = #{merchantId} " +
+            "GROUP BY oi.merchant_id, DATE(o.create_time), o.status")
+    int rebuildOrders(@Param("merchantId") Long merchantId);
+    
+    /**
+     * 从订单明细重建商家按退款日期（已退款订单的更新时间）的退款金额
+     */
+    @Insert("INSERT INTO merchant_daily_stats (merchant_id, day, status, revenue, refunds, order_count) " +
+            "SELECT oi.merchant_id, DATE(o.update_time), 'refunded', 0, SUM(oi.subtotal), 0 " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+            "WHERE oi.merchant_id = #{merchantId} AND o.status = 'refunded' " +
+            "GROUP BY oi.merchant_id, DATE(o.update_time) " +
+            "ON DUPLICATE KEY UPDATE refunds = refunds + VALUES(refunds)")
+    int rebuildRefunds(@Param("merchantId") Long merchantId);
+}
@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -14,6 +15,15 @@ public interface OrderItemMapper extends BaseMapper<OrderItem> {
     @Select("SELECT * FROM order_items WHERE order_id = #{orderId}")
     List<OrderItem> findByOrderId(@Param("orderId") Long orderId);
     
+    @Select("<script>" +
+            "SELECT * FROM order_items WHERE order_id IN " +
+            "<foreach collection='orderIds' item='orderId' open='(' separator=',' close=')'>" +
+            "#{orderId}" +
+            "</foreach> " +
+            "ORDER BY order_id, id" +
+            "</script>")
+    List<OrderItem> findByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+    
     @Select("SELECT * FROM order_items WHERE merchant_id = #{merchantId}")
     List<OrderItem> findByMerchantId(@Param("merchantId") Long merchantId);
     
@@ -22,4 +32,17 @@ public interface OrderItemMapper extends BaseMapper<OrderItem> {
     
     @Select("SELECT DISTINCT order_id FROM order_items WHERE merchant_id = #{merchantId}")
     List<Long> findOrderIdsByMerchantId(@Param("merchantId") Long merchantId);
+    
+    /**
+     * 按商家汇总订单金额，返回的OrderItem只包含merchantId和subtotal
+     */
+    @Select("SELECT merchant_id, SUM(subtotal) AS subtotal FROM order_items " +
+            "WHERE order_id = #{orderId} GROUP BY merchant_id")
+    List<OrderItem> sumSubtotalByMerchant(@Param("orderId") Long orderId);
+    
+    /**
+     * 查询有订单的所有商家ID
+     */
+    @Select("SELECT DISTINCT merchant_id FROM order_items WHERE merchant_id IS NOT NULL ORDER BY merchant_id")
+    List<Long> findMerchantIds();
 } 
\ No newline at end of file
@@ -2,11 +2,17 @@ package com.example.auth.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.auth.model.dto.OrderExportRow;
 import com.example.auth.model.entity.Order;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -32,6 +38,138 @@ public interface OrderMapper extends BaseMapper<Order> {
             "ORDER BY o.create_time DESC")
     Page<Order> findByMerchantId(Page<?> page, @Param("merchantId") Long merchantId);
     
+    /**
+     * 按(create_time, id)游标查询用户订单，走orders(user_id, create_time)索引，不统计总数
+     */
+    @Select("<script>" +
+            "SELECT * FROM orders WHERE user_id = #{userId} " +
+            "<if test='cursorTime != null'>" +
+            "AND (create_time &lt; #{cursorTime} OR (create_time = #{cursorTime} AND id &lt; #{cursorId})) " +
+            "</if>" +
+            "ORDER BY create_time DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    List<Order> findByUserIdAfterCursor(@Param("userId") Long userId,
+                                        @Param("cursorTime") LocalDateTime cursorTime,
+                                        @Param("cursorId") Long cursorId,
+                                        @Param("limit") int limit);
+    
+    /**
+     * 按订单ID游标查询商家订单（ID降序，与下单时间顺序一致）
+     * 沿order_items(merchant_id, order_id)索引倒序取出本页的订单ID，读到limit个即停止，无需对商家全部订单排序
+     */
+    @Select("<script>" +
+            "SELECT o.* FROM orders o " +
+            "JOIN (SELECT DISTINCT oi.order_id FROM order_items oi WHERE oi.merchant_id = #{merchantId} " +
+            "<if test='cursorId != null'>AND oi.order_id &lt; #{cursorId} </if>" +
+            "ORDER BY oi.order_id DESC LIMIT #{limit}) merchant_orders ON o.id = merchant_orders.order_id " +
+            "ORDER BY o.id DESC" +
+            "</script>")
+    List<Order> findByMerchantIdAfterCursor(@Param("merchantId") Long merchantId,
+                                            @Param("cursorId") Long cursorId,
+                                            @Param("limit") int limit);
+    
+    /**
+     * 分页查询商家的售后订单（ID降序，与游标接口顺序一致），走orders(after_sale_status)索引，只扫描售后订单
+     */
+    @Select("SELECT o.* FROM orders o " +
+            "WHERE o.after_sale_status IS NOT NULL AND o.after_sale_status <> '' " +
+            "AND o.id IN (SELECT oi.order_id FROM order_items oi WHERE oi.merchant_id = #{merchantId}) " +
+            "ORDER BY o.id DESC")
+    Page<Order> findAfterSaleByMerchantId(Page<?> page, @Param("merchantId") Long merchantId);
+    
+    /**
+     * 按订单ID游标查询商家的售后订单（ID降序），不统计总数
+     * 游标使用不会变化的订单ID，售后处理更新update_time时订单不会在页之间移动而重复或漏掉
+     */
+    @Select("<script>" +
+            "SELECT o.* FROM orders o " +
+            "WHERE o.after_sale_status IS NOT NULL AND o.after_sale_status &lt;&gt; '' " +
+            "AND o.id IN (SELECT oi.order_id FROM order_items oi WHERE oi.merchant_id = #{merchantId}) " +
+            "<if test='cursorId != null'>AND o.id &lt; #{cursorId} </if>" +
+            "ORDER BY o.id DESC LIMIT #{limit}" +
+            "</script>")
+    List<Order> findAfterSaleByMerchantIdAfterCursor(@Param("merchantId") Long merchantId,
+                                                     @Param("cursorId") Long cursorId,
+                                                     @Param("limit") int limit);
+    
+    /**
+     * 流式读取商家的订单商品导出行，按order_items(merchant_id, order_id)索引倒序扫描，无需排序
+     * fetchSize为Integer.MIN_VALUE时MySQL驱动逐行读取结果，必须在事务内遍历并在结束前关闭Cursor
+     */
+    @Select("SELECT o.id AS order_id, o.order_number, o.create_time, o.status, o.after_sale_status, o.total_amount, " +
+            "u.username, o.recipient_name, o.phone, o.address, " +
+            "oi.product_id, oi.product_name, oi.product_price, oi.quantity, oi.subtotal, oi.merchant_id " +
+            "FROM order_items oi " +
+            "INNER JOIN orders o ON o.id = oi.order_id " +
+            "LEFT JOIN users u ON u.id = o.user_id " +
+            "WHERE oi.merchant_id = #{merchantId} " +
+            "ORDER BY oi.merchant_id DESC, oi.order_id DESC, oi.id DESC")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<OrderExportRow> streamExportRowsByMerchantId(@Param("merchantId") Long merchantId);
+    
+    /**
+     * 流式读取全部订单商品导出行（管理员），筛选条件与订单列表一致，按订单ID倒序
+     */
+    @Select("<script>" +
+            "SELECT o.id AS order_id, o.order_number, o.create_time, o.status, o.after_sale_status, o.total_amount, " +
+            "u.username, o.recipient_name, o.phone, o.address, " +
+            "oi.product_id, oi.product_name, oi.product_price, oi.quantity, oi.subtotal, oi.merchant_id " +
+            "FROM orders o " +
+            "INNER JOIN order_items oi ON oi.order_id = o.id " +
+            "LEFT JOIN users u ON u.id = o.user_id " +
+            "<where>" +
+            "<if test='orderNumber != null and orderNumber != \"\"'>AND o.order_number LIKE CONCAT('%', #{orderNumber}, '%') </if>" +
+            "<if test='status != null and status != \"\"'>AND o.status = #{status} </if>" +
+            "<if test='userId != null'>AND o.user_id = #{userId} </if>" +
+            "</where>" +
+            "ORDER BY o.id DESC, oi.id DESC" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<OrderExportRow> streamExportRows(@Param("orderNumber") String orderNumber,
+                                            @Param("status") String status,
+                                            @Param("userId") Long userId);
+    
+    /**
+     * 锁定订单并读取最新状态，用于状态变更前的检查
+     */
+    @Select("SELECT * FROM orders WHERE id = #{id} FOR UPDATE")
+    Order lockById(@Param("id") Long id);
+    
+    /**
+     * 锁定一批超时未支付的订单，走orders(status, create_time)索引按下单时间顺序扫描
+     * 被其他事务锁定（正在支付或取消）的订单跳过，留到下一轮
+     */
+    @Select("SELECT * FROM orders WHERE status = 'pending' AND create_time < #{deadline} " +
+            "ORDER BY create_time, id LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<Order> lockExpiredPending(@Param("deadline") LocalDateTime deadline, @Param("limit") int limit);
+    
+    /**
+     * 批量取消仍处于待支付状态的订单，并在备注中记录原因
+     */
+    @Update("<script>" +
+            "UPDATE orders SET status = 'cancelled', update_time = #{now}, " +
+            "remark = CONCAT_WS('\n', NULLIF(remark, ''), #{reason}) " +
+            "WHERE status = 'pending' AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    int cancelPendingByIds(@Param("ids") List<Long> ids,
+                           @Param("reason") String reason,
+                           @Param("now") LocalDateTime now);
+    
+    /**
+     * 统计超时未支付的订单数
+     */
+    @Select("SELECT COUNT(*) FROM orders WHERE status = 'pending' AND create_time < #{deadline}")
+    long countExpiredPending(@Param("deadline") LocalDateTime deadline);
+    
+    /**
+     * 最早的待支付订单的下单时间，没有待支付订单时返回null
+     */
+    @Select("SELECT MIN(create_time) FROM orders WHERE status = 'pending'")
+    LocalDateTime findOldestPendingCreateTime();
+    
     @Select("SELECT * FROM orders WHERE order_number = #{orderNumber}")
     Order findByOrderNumber(@Param("orderNumber") String orderNumber);
 } 
\ No newline at end of file
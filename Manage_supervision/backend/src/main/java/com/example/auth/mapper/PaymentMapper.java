@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -14,6 +15,21 @@ public interface PaymentMapper extends BaseMapper<Payment> {
     @Select("SELECT * FROM payments WHERE order_id = #{orderId}")
     List<Payment> findByOrderId(@Param("orderId") Long orderId);
     
+    @Select("<script>" +
+            "SELECT * FROM payments WHERE order_id IN " +
+            "<foreach collection='orderIds' item='orderId' open='(' separator=',' close=')'>" +
+            "#{orderId}" +
+            "</foreach> " +
+            "ORDER BY order_id, id" +
+            "</script>")
+    List<Payment> findByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+    
+    /**
+     * 锁定支付记录并读取最新状态
+     */
+    @Select("SELECT * FROM payments WHERE id = #{id} FOR UPDATE")
+    Payment lockById(@Param("id") Long id);
+    
     @Select("SELECT * FROM payments WHERE payment_number = #{paymentNumber}")
     Payment findByPaymentNumber(@Param("paymentNumber") String paymentNumber);
     
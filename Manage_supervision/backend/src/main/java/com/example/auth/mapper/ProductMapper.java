@@ -6,8 +6,11 @@ import com.example.auth.model.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ProductMapper extends BaseMapper<Product> {
@@ -43,8 +46,78 @@ public interface ProductMapper extends BaseMapper<Product> {
     Page<Product> findByCategoryId(Page<Product> page, @Param("categoryId") Long categoryId);
     
     /**
-     * 根据名称模糊搜索产品
+     * 全文检索已审核商品ID，使用products(name, description)的ngram全文索引，按相关度排序
+     * 短于ngram分词长度的关键字在全文索引中查不到，传入likePattern时改用LIKE匹配，按ID降序
      */
-    @Select("SELECT p.* FROM products p WHERE p.name LIKE CONCAT('%', #{keyword}, '%') AND p.status = 'approved' ORDER BY p.create_time DESC")
-    Page<Product> searchProducts(Page<Product> page, @Param("keyword") String keyword);
-} 
\ No newline at end of file
+    @Select("<script>" +
+            "SELECT p.id FROM products p " +
+            "<choose>" +
+            "<when test='likePattern != null'>" +
+            "WHERE (p.name LIKE #{likePattern} OR p.description LIKE #{likePattern}) " +
+            "</when>" +
+            "<otherwise>" +
+            "WHERE MATCH(p.name, p.description) AGAINST (#{keyword} IN NATURAL LANGUAGE MODE) " +
+            "</otherwise>" +
+            "</choose>" +
+            "AND p.status = 'approved' " +
+            "<if test='categoryIds != null'>" +
+            "AND p.category_id IN " +
+            "<foreach collection='categoryIds' item='categoryId' open='(' separator=',' close=')'>" +
+            "#{categoryId}" +
+            "</foreach> " +
+            "</if>" +
+            "<if test='minPrice != null'>AND p.price &gt;= #{minPrice} </if>" +
+            "<if test='maxPrice != null'>AND p.price &lt;= #{maxPrice} </if>" +
+            "<if test='minStock != null'>AND p.stock &gt;= #{minStock} </if>" +
+            "<choose>" +
+            "<when test='likePattern != null'>ORDER BY p.id DESC</when>" +
+            "<otherwise>ORDER BY MATCH(p.name, p.description) AGAINST (#{keyword} IN NATURAL LANGUAGE MODE) DESC, p.id DESC</otherwise>" +
+            "</choose>" +
+            "</script>")
+    Page<Long> searchIds(Page<Long> page,
+                         @Param("keyword") String keyword,
+                         @Param("likePattern") String likePattern,
+                         @Param("categoryIds") List<Long> categoryIds,
+                         @Param("minPrice") BigDecimal minPrice,
+                         @Param("maxPrice") BigDecimal maxPrice,
+                         @Param("minStock") Integer minStock);
+    
+    /**
+     * 批量条件扣减库存（商品ID -> 扣减数量），只更新库存充足且已审核的商品
+     * 返回值小于商品数量时说明有商品库存不足
+     */
+    @Update("<script>" +
+            "UPDATE products SET stock = stock - CASE id " +
+            "<foreach collection='deltas' index='productId' item='quantity'>" +
+            "WHEN #{productId} THEN #{quantity} " +
+            "</foreach>" +
+            "END " +
+            "WHERE id IN " +
+            "<foreach collection='deltas' index='productId' open='(' separator=',' close=')'>" +
+            "#{productId}" +
+            "</foreach> " +
+            "AND status = 'approved' " +
+            "AND stock &gt;= CASE id " +
+            "<foreach collection='deltas' index='productId' item='quantity'>" +
+            "WHEN #{productId} THEN #{quantity} " +
+            "</foreach>" +
+            "END" +
+            "</script>")
+    int decreaseStockBatch(@Param("deltas") Map<Long, Integer> deltas);
+    
+    /**
+     * 批量归还库存（商品ID -> 归还数量）
+     */
+    @Update("<script>" +
+            "UPDATE products SET stock = stock + CASE id " +
+            "<foreach collection='deltas' index='productId' item='quantity'>" +
+            "WHEN #{productId} THEN #{quantity} " +
+            "</foreach>" +
+            "END " +
+            "WHERE id IN " +
+            "<foreach collection='deltas' index='productId' open='(' separator=',' close=')'>" +
+            "#{productId}" +
+            "</foreach>" +
+            "</script>")
+    int increaseStockBatch(@Param("deltas") Map<Long, Integer> deltas);
+}
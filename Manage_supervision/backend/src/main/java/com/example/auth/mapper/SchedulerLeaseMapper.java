@@ -0,0 +1,33 @@
+package com.example.auth.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface SchedulerLeaseMapper {
+    
+    /**
+     * 租约不存在时由owner创建，时间以数据库为准
+     * @return 1表示创建成功，0表示租约已存在
+     */
+    @Insert("INSERT IGNORE INTO scheduler_leases (name, owner, expire_time) " +
+            "VALUES (#{name}, #{owner}, NOW(3) + INTERVAL #{leaseSeconds} SECOND)")
+    int tryCreate(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+    
+    /**
+     * 租约属于owner或已过期时由owner续期/接管
+     * @return 1表示当前由owner持有，0表示被其他节点持有
+     */
+    @Update("UPDATE scheduler_leases SET owner = #{owner}, expire_time = NOW(3) + INTERVAL #{leaseSeconds} SECOND " +
+            "WHERE name = #{name} AND (owner = #{owner} OR expire_time < NOW(3))")
+    int tryRenew(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+    
+    /**
+     * 释放owner持有的租约
+     */
+    @Delete("DELETE FROM scheduler_leases WHERE name = #{name} AND owner = #{owner}")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -0,0 +1,45 @@
+package com.example.auth.mapper;
+
+import com.example.auth.model.entity.StockLedgerJournal;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+@Mapper
+public interface StockLedgerJournalMapper {
+    
+    /**
+     * 批量写入库存流水（商品ID -> 库存变化量）
+     */
+    @Insert("<script>" +
+            "INSERT INTO stock_ledger_journal (product_id, delta) VALUES " +
+            "<foreach collection='deltas' index='productId' item='delta' separator=','>" +
+            "(#{productId}, #{delta})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("deltas") Map<Long, Integer> deltas);
+    
+    /**
+     * 按ID顺序锁定一批待回写的流水，会等待尚未提交的流水
+     */
+    @Select("SELECT id, product_id, delta FROM stock_ledger_journal ORDER BY id LIMIT #{limit} FOR UPDATE")
+    List<StockLedgerJournal> lockPending(@Param("limit") int limit);
+    
+    /**
+     * 删除已回写的流水
+     */
+    @Delete("DELETE FROM stock_ledger_journal WHERE id <= #{maxId}")
+    int deleteUpTo(@Param("maxId") Long maxId);
+    
+    /**
+     * 查询商品当前可用库存：数据库库存加上尚未回写的流水
+     */
+    @Select("SELECT p.stock + COALESCE((SELECT SUM(j.delta) FROM stock_ledger_journal j WHERE j.product_id = p.id), 0) " +
+            "FROM products p WHERE p.id = #{productId}")
+    Integer findAvailableStock(@Param("productId") Long productId);
+}
@@ -7,7 +7,9 @@ import com.example.auth.model.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -102,4 +104,30 @@ public interface UserMapper extends BaseMapper<User> {
             "JOIN roles r ON ur.role_id = r.id " +
             "WHERE ur.user_id = #{userId} AND r.name = #{roleName}")
     boolean hasRole(@Param("userId") Long userId, @Param("roleName") String roleName);
-} 
\ No newline at end of file
+    
+    /**
+     * 递增用户的令牌版本，使已签发的Token失效，并记录吊销时间
+     */
+    @Update("UPDATE users SET token_version = token_version + 1, token_revoked_at = #{revokedAt} WHERE id = #{userId}")
+    int incrementTokenVersion(@Param("userId") Long userId, @Param("revokedAt") LocalDateTime revokedAt);
+    
+    /**
+     * 查询用户当前的令牌版本
+     */
+    @Select("SELECT token_version FROM users WHERE id = #{userId}")
+    Integer findTokenVersion(@Param("userId") Long userId);
+    
+    /**
+     * 查询指定时间之后吊销过令牌的用户（id, token_version），走token_revoked_at索引
+     */
+    @Select("SELECT id, token_version FROM users WHERE token_revoked_at >= #{since}")
+    List<User> findTokenVersionsRevokedSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * 旧格式密码升级：仅当密码仍为旧值时替换，避免覆盖期间修改过的密码
+     */
+    @Update("UPDATE users SET password = #{newPassword} WHERE id = #{userId} AND password = #{oldPassword}")
+    int upgradePassword(@Param("userId") Long userId,
+                        @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
+}
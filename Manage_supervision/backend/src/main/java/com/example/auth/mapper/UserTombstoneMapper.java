@@ -0,0 +1,32 @@
+package com.example.auth.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface UserTombstoneMapper {
+    
+    /**
+     * 记录已删除的用户，用户行删除后仍可据此拒绝其未过期的Token
+     */
+    @Insert("INSERT IGNORE INTO user_tombstones (user_id, delete_time) VALUES (#{userId}, #{deleteTime})")
+    int insert(@Param("userId") Long userId, @Param("deleteTime") LocalDateTime deleteTime);
+    
+    /**
+     * 查询指定时间之后删除的用户ID
+     */
+    @Select("SELECT user_id FROM user_tombstones WHERE delete_time >= #{since}")
+    List<Long> findUserIdsDeletedSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * 清理指定时间之前的记录（之前签发的Token都已过期）
+     */
+    @Delete("DELETE FROM user_tombstones WHERE delete_time < #{before}")
+    int deleteBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,65 @@
+package com.example.auth.mapper;
+
+import com.example.auth.model.entity.UserUnread;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+
+@Mapper
+public interface UserUnreadMapper {
+    
+    /**
+     * 查询用户的未读计数，没有记录时返回null（视为0）
+     */
+    @Select("SELECT user_id, unread_messages, unread_conversations FROM user_unread WHERE user_id = #{userId}")
+    UserUnread findByUserId(@Param("userId") Long userId);
+    
+    /**
+     * 为没有未读计数记录的用户插入全0行，已存在时忽略
+     * 调用方应按用户ID排序，保证并发更新时加锁顺序一致
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO user_unread (user_id) VALUES " +
+            "<foreach collection='deltas' item='d' separator=','>(#{d.userId})</foreach>" +
+            "</script>")
+    int ensureRows(@Param("deltas") Collection<UserUnread> deltas);
+    
+    /**
+     * 批量累加未读计数变化量，计数不会小于0，须先调用ensureRows保证记录存在
+     */
+    @Update("<script>" +
+            "UPDATE user_unread SET " +
+            "unread_messages = GREATEST(0, unread_messages + CASE user_id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.userId} THEN #{d.unreadMessages} </foreach>" +
+            "END), " +
+            "unread_conversations = GREATEST(0, unread_conversations + CASE user_id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.userId} THEN #{d.unreadConversations} </foreach>" +
+            "END) " +
+            "WHERE user_id IN " +
+            "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d.userId}</foreach>" +
+            "</script>")
+    int applyDeltas(@Param("deltas") Collection<UserUnread> deltas);
+    
+    /**
+     * 是否已有未读计数数据
+     */
+    @Select("SELECT EXISTS (SELECT 1 FROM user_unread)")
+    boolean hasAny();
+    
+    /**
+     * 从会话表的未读数重建所有用户的未读计数，单条语句读取会话时加共享锁，与消息写入串行
+     */
+    @Insert("INSERT INTO user_unread (user_id, unread_messages, unread_conversations) " +
+            "SELECT t.user_id, SUM(t.unread), SUM(t.unread > 0) FROM (" +
+            "SELECT user1_id AS user_id, unread_count_user1 AS unread FROM conversations " +
+            "UNION ALL " +
+            "SELECT user2_id AS user_id, unread_count_user2 AS unread FROM conversations" +
+            ") t GROUP BY t.user_id HAVING SUM(t.unread) > 0 " +
+            "ON DUPLICATE KEY UPDATE unread_messages = VALUES(unread_messages), " +
+            "unread_conversations = VALUES(unread_conversations)")
+    int rebuildFromConversations();
+}
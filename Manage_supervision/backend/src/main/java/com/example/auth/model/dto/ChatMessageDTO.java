@@ -26,6 +26,7 @@ public class ChatMessageDTO {
     private String fileName;
     private String fileType;
     private Long fileSize;
+    private Long seq; // 提交顺序号，作为历史消息游标
 
     public ChatMessageDTO() {
     }
@@ -48,6 +49,7 @@ public class ChatMessageDTO {
         this.fileName = message.getFileName();
         this.fileType = message.getFileType();
         this.fileSize = message.getFileSize();
+        this.seq = message.getSeq();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.auth.model.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页响应，不返回总数
+ */
+@Data
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public CursorPageResponse(List<T> content, String nextCursor, boolean hasMore) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.auth.model.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 订单导出行，一个订单商品一行，由导出查询一次联表得到
+ */
+@Data
+public class OrderExportRow {
+    private Long orderId;
+    private String orderNumber;
+    private LocalDateTime createTime;
+    private String status;
+    private String afterSaleStatus;
+    private BigDecimal totalAmount;
+    private String username;
+    private String recipientName;
+    private String phone;
+    private String address;
+    private Long productId;
+    private String productName;
+    private BigDecimal productPrice;
+    private Integer quantity;
+    private BigDecimal subtotal;
+    private Long merchantId;
+}
@@ -41,6 +41,10 @@ public class ChatMessage {
     @TableField("file_size")
     private Long fileSize;
 
+    // 提交顺序号，在写入事务中分配，顺序与提交顺序一致
+    @TableField("seq")
+    private Long seq;
+
     @TableField(exist = false)
     private Conversation conversation;
 
@@ -87,6 +91,10 @@ public class ChatMessage {
         return sentTime;
     }
 
+    public Long getSeq() {
+        return seq;
+    }
+
     public boolean isRead() {
         return isRead;
     }
@@ -153,6 +161,10 @@ public class ChatMessage {
         this.sentTime = sentTime;
     }
 
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
     public void setRead(boolean isRead) {
         this.isRead = isRead;
     }
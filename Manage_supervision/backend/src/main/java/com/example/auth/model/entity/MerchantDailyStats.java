@@ -0,0 +1,92 @@
+package com.example.auth.model.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 商家每日订单统计
+ * revenue、orderCount：当天创建、当前处于该状态的订单中属于该商家的金额和订单数；
+ * refunds：当天发生的退款金额（记在refunded状态行）。批量更新时表示变化量
+ */
+@TableName("merchant_daily_stats")
+public class MerchantDailyStats {
+    @TableField("merchant_id")
+    private Long merchantId;
+
+    private LocalDate day;
+
+    private String status;
+
+    private BigDecimal revenue;
+
+    private BigDecimal refunds;
+
+    @TableField("order_count")
+    private Integer orderCount;
+
+    public MerchantDailyStats() {
+    }
+
+    public MerchantDailyStats(Long merchantId, LocalDate day, String status,
+                              BigDecimal revenue, BigDecimal refunds, Integer orderCount) {
+        this.merchantId = merchantId;
+        this.day = day;
+        this.status = status;
+        this.revenue = revenue;
+        this.refunds = refunds;
+        this.orderCount = orderCount;
+    }
+
+    // Getters
+    public Long getMerchantId() {
+        return merchantId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public BigDecimal getRefunds() {
+        return refunds;
+    }
+
+    public Integer getOrderCount() {
+        return orderCount;
+    }
+
+    // Setters
+    public void setMerchantId(Long merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public void setRefunds(BigDecimal refunds) {
+        this.refunds = refunds;
+    }
+
+    public void setOrderCount(Integer orderCount) {
+        this.orderCount = orderCount;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.auth.model.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+/**
+ * 热点商品库存流水（尚未回写到products.stock的库存变化）
+ */
+@TableName("stock_ledger_journal")
+public class StockLedgerJournal {
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    @TableField("product_id")
+    private Long productId;
+
+    // 库存变化量：扣减为负数，归还为正数
+    private Integer delta;
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    // Setters
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.auth.model.entity;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -37,6 +38,10 @@ public class User {
     @TableField("user_number")
     private String userNumber;
 
+    // 令牌版本只通过UserMapper.incrementTokenVersion修改，updateById不会覆盖
+    @TableField(value = "token_version", updateStrategy = FieldStrategy.NEVER)
+    private Integer tokenVersion;
+
     @TableField(exist = false)
     private Set<Role> roles;
 
@@ -92,6 +97,10 @@ public class User {
     public String getUserNumber() {
         return userNumber;
     }
+    
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
 
     // Setters
     public void setId(Long id) {
@@ -145,4 +154,8 @@ public class User {
     public void setUserNumber(String userNumber) {
         this.userNumber = userNumber;
     }
+    
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.auth.model.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+/**
+ * 用户未读计数（未读消息总数、有未读消息的会话数）
+ * 批量更新时表示计数的变化量
+ */
+@TableName("user_unread")
+public class UserUnread {
+    @TableId("user_id")
+    private Long userId;
+
+    @TableField("unread_messages")
+    private Integer unreadMessages;
+
+    @TableField("unread_conversations")
+    private Integer unreadConversations;
+
+    public UserUnread() {
+    }
+
+    public UserUnread(Long userId, Integer unreadMessages, Integer unreadConversations) {
+        this.userId = userId;
+        this.unreadMessages = unreadMessages;
+        this.unreadConversations = unreadConversations;
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Integer getUnreadMessages() {
+        return unreadMessages;
+    }
+
+    public Integer getUnreadConversations() {
+        return unreadConversations;
+    }
+
+    // Setters
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public void setUnreadMessages(Integer unreadMessages) {
+        this.unreadMessages = unreadMessages;
+    }
+
+    public void setUnreadConversations(Integer unreadConversations) {
+        this.unreadConversations = unreadConversations;
+    }
+}
@@ -21,6 +21,12 @@ public interface CategoryService {
      */
     CategoryDTO createCategory(CategoryDTO categoryDTO);
     
+    /**
+     * 批量创建分类，单个失败不影响其他分类
+     * @return 成功创建的数量
+     */
+    int batchCreateCategories(List<CategoryDTO> categoryDTOs);
+    
     /**
      * 更新分类
      */
@@ -2,6 +2,7 @@ package com.example.auth.service;
 
 import com.example.auth.model.dto.ChatMessageDTO;
 import com.example.auth.model.dto.ConversationDTO;
+import com.example.auth.model.dto.CursorPageResponse;
 import com.example.auth.model.entity.User;
 
 import java.util.List;
@@ -30,6 +31,17 @@ public interface ChatService {
     // 获取指定消息之前的消息
     List<ChatMessageDTO> getMessagesBeforeId(Long conversationId, Long messageId, int size);
 
+    /**
+     * 按提交顺序号（消息的seq，即返回的nextCursor）游标查询会话历史，结果按seq升序，不查询总数
+     * @param beforeSeq 向前翻页：返回该顺序号之前的消息，与afterSeq都为空时返回最新消息
+     * @param afterSeq 增量同步：返回该顺序号之后提交的消息，与beforeSeq不能同时指定
+     * @param size 每页条数
+     */
+    CursorPageResponse<ChatMessageDTO> getMessageHistory(Long conversationId, Long beforeSeq, Long afterSeq, int size);
+
+    // 判断用户是否是会话的参与者，会话不存在时返回false
+    boolean isParticipant(Long conversationId, Long userId);
+
     // 获取用户的未读消息数量
     int getUnreadMessageCount(Long userId);
 
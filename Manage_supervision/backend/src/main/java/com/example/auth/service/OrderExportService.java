@@ -0,0 +1,28 @@
+package com.example.auth.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * 订单导出服务
+ */
+public interface OrderExportService {
+
+    /**
+     * 导出商家的订单商品（CSV）
+     * @param merchantId 商家ID
+     * @return 流式写出CSV的响应体
+     * @throws com.example.auth.common.exception.BusinessException 导出任务过多（code 429）
+     */
+    StreamingResponseBody exportMerchantOrders(Long merchantId);
+
+    /**
+     * 导出全部订单商品（CSV，管理员），筛选条件与订单列表一致
+     * @param operatorId 发起导出的管理员ID，用于并发限制
+     * @param orderNumber 订单号（模糊匹配）
+     * @param status 订单状态
+     * @param userId 下单用户ID
+     * @return 流式写出CSV的响应体
+     * @throws com.example.auth.common.exception.BusinessException 导出任务过多（code 429）
+     */
+    StreamingResponseBody exportAllOrders(Long operatorId, String orderNumber, String status, Long userId);
+}
@@ -2,6 +2,7 @@ package com.example.auth.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.example.auth.model.dto.CreateOrderRequest;
+import com.example.auth.model.dto.CursorPageResponse;
 import com.example.auth.model.dto.OrderDTO;
 import com.example.auth.model.entity.Order;
 
@@ -43,6 +44,24 @@ public interface OrderService {
      */
     Page<OrderDTO> getMerchantOrders(Long merchantId, int page, int size);
     
+    /**
+     * 游标分页获取用户订单列表（不统计总数）
+     * @param userId 用户ID
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页大小
+     * @return 订单DTO游标分页
+     */
+    CursorPageResponse<OrderDTO> getUserOrdersByCursor(Long userId, String cursor, int size);
+
+    /**
+     * 游标分页获取商家订单列表（不统计总数）
+     * @param merchantId 商家ID
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页大小
+     * @return 订单DTO游标分页
+     */
+    CursorPageResponse<OrderDTO> getMerchantOrdersByCursor(Long merchantId, String cursor, int size);
+    
     /**
      * 获取所有订单列表（分页，管理员使用）
      * @param page 页码
@@ -121,4 +140,13 @@ public interface OrderService {
      * @return 订单DTO分页
      */
     Page<OrderDTO> getMerchantAfterSaleOrders(Long merchantId, int page, int size);
-} 
\ No newline at end of file
+    
+    /**
+     * 游标分页获取商家售后订单列表（按订单ID倒序，不统计总数）
+     * @param merchantId 商家ID
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页大小
+     * @return 订单DTO游标分页
+     */
+    CursorPageResponse<OrderDTO> getMerchantAfterSaleOrdersByCursor(Long merchantId, String cursor, int size);
+}
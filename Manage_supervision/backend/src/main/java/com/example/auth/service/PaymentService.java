@@ -3,8 +3,10 @@ package com.example.auth.service;
 import com.example.auth.model.dto.PaymentDTO;
 import com.example.auth.model.dto.PaymentRequest;
 import com.example.auth.model.dto.RefundRequest;
+import com.example.auth.model.entity.Order;
 
 import java.util.List;
+import java.util.Map;
 
 public interface PaymentService {
 
@@ -45,6 +47,13 @@ public interface PaymentService {
      */
     List<PaymentDTO> getPaymentsByOrderId(Long orderId);
 
+    /**
+     * 批量获取多个订单的支付记录（一次查询）
+     * @param orders 订单列表
+     * @return 订单ID -> 支付DTO列表
+     */
+    Map<Long, List<PaymentDTO>> getPaymentsByOrders(List<Order> orders);
+
     /**
      * 获取用户支付记录
      * @param userId 用户ID
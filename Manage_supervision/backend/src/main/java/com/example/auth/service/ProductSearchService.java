@@ -0,0 +1,25 @@
+package com.example.auth.service;
+
+import com.example.auth.model.dto.PageResponse;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品全文检索服务
+ */
+public interface ProductSearchService {
+
+    /**
+     * 检索已审核通过的商品，按相关度排序
+     * @param keyword 关键字
+     * @param categoryId 分类ID（包含子分类，可选）
+     * @param minPrice 最低价格（可选）
+     * @param maxPrice 最高价格（可选）
+     * @param minStock 最低库存（可选）
+     * @param page 页码
+     * @param size 每页大小
+     * @return 当前页商品ID（按相关度排序）及总数
+     */
+    PageResponse<Long> search(String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                              Integer minStock, int page, int size);
+}
@@ -52,9 +52,10 @@ public interface ProductService {
     PageResponse<ProductDTO> getProductsByCategory(Long categoryId, int page, int size);
     
     /**
-     * 搜索商品
+     * 全文搜索已审核商品（按相关度排序，可按分类、价格、库存过滤）
      */
-    PageResponse<ProductDTO> searchProducts(String keyword, int page, int size);
+    PageResponse<ProductDTO> searchProducts(String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                            Integer minStock, int page, int size);
     
     /**
      * 删除商品
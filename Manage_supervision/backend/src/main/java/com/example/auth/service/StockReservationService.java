@@ -0,0 +1,28 @@
+package com.example.auth.service;
+
+import com.example.auth.model.entity.OrderItem;
+import com.example.auth.model.entity.Product;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 库存预留服务
+ * 下单时批量扣减库存，取消/退款时批量归还库存
+ */
+public interface StockReservationService {
+
+    /**
+     * 批量预留库存：一次IN查询加载商品，一次多行条件扣减（stock >= 数量）
+     * 任一商品不存在、未审核或库存不足时抛出BusinessException，由调用方事务回滚
+     * @param quantities 商品ID -> 购买数量
+     * @return 商品ID -> 商品信息（扣减前快照）
+     */
+    Map<Long, Product> reserve(Map<Long, Integer> quantities);
+
+    /**
+     * 批量释放订单商品占用的库存
+     * @param orderItems 订单商品列表
+     */
+    void release(List<OrderItem> orderItems);
+}
@@ -2,6 +2,8 @@ package com.example.auth.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.auth.common.cache.TokenVersionRegistry;
+import com.example.auth.common.event.UserChangedEvent;
 import com.example.auth.model.dto.PageResponse;
 import com.example.auth.model.dto.RoleDTO;
 import com.example.auth.model.dto.UserDTO;
@@ -14,6 +16,7 @@ import com.example.auth.service.AdminService;
 import com.example.auth.util.PasswordUtils;
 import com.example.auth.util.UserNumberGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.annotation.PostConstruct;
@@ -38,6 +41,12 @@ public class AdminServiceImpl implements AdminService {
     @Autowired
     private UserNumberGenerator userNumberGenerator;
     
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     @Override
@@ -201,6 +210,9 @@ public class AdminServiceImpl implements AdminService {
                     // 更新用户-角色关联
                     userRoleMapper.deleteUserRoles(user.getId());
                     userRoleMapper.insertUserRole(user.getId(), newRole.getId());
+                    if (!currentRoleNames.equals(Set.of(newRoleName))) {
+                        tokenVersionRegistry.revoke(user.getId());
+                    }
                     
                     user.setRoles(new HashSet<>(Collections.singletonList(newRole)));
                 }
@@ -208,6 +220,7 @@ public class AdminServiceImpl implements AdminService {
             
             // 更新用户信息
             userMapper.updateById(user);
+            eventPublisher.publishEvent(UserChangedEvent.of(user.getId()));
             
             return convertToUserDTO(user);
         }
@@ -222,6 +235,8 @@ public class AdminServiceImpl implements AdminService {
             // 切换状态
             user.setStatus("active".equals(user.getStatus()) ? "inactive" : "active");
             userMapper.updateById(user);
+            tokenVersionRegistry.revoke(id);
+            eventPublisher.publishEvent(UserChangedEvent.of(id));
         }
     }
     
@@ -233,6 +248,8 @@ public class AdminServiceImpl implements AdminService {
             // 使用PasswordUtils加密密码
             user.setPassword(PasswordUtils.encryptPassword(newPassword));
             userMapper.updateById(user);
+            tokenVersionRegistry.revoke(id);
+            eventPublisher.publishEvent(UserChangedEvent.of(id));
         }
     }
     
@@ -278,6 +295,7 @@ public class AdminServiceImpl implements AdminService {
             }
             
             roleMapper.updateById(role);
+            eventPublisher.publishEvent(UserChangedEvent.all());
             return convertToRoleDTO(role);
         }
         return null;
@@ -286,7 +304,12 @@ public class AdminServiceImpl implements AdminService {
     @Override
     @Transactional
     public void deleteRole(Long id) {
+        // 拥有该角色的用户Token中仍带有此角色，先吊销
+        for (User user : userMapper.findByRoleId(id)) {
+            tokenVersionRegistry.revoke(user.getId());
+        }
         roleMapper.deleteById(id);
+        eventPublisher.publishEvent(UserChangedEvent.all());
     }
     
     // 添加初始化方法，在服务启动时修复数据
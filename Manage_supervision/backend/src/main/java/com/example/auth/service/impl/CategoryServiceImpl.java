@@ -1,11 +1,13 @@
 package com.example.auth.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.example.auth.common.cache.CategoryTreeIndex;
+import com.example.auth.common.event.CategoryChangedEvent;
 import com.example.auth.model.dto.CategoryDTO;
 import com.example.auth.model.entity.Category;
 import com.example.auth.mapper.CategoryMapper;
 import com.example.auth.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,12 +23,18 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryMapper categoryMapper;
     
+    @Autowired
+    private CategoryTreeIndex categoryTreeIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     @Override
     public List<CategoryDTO> getAllCategoriesTree() {
         // 获取所有根分类
-        List<Category> rootCategories = categoryMapper.findRootCategories();
+        List<Category> rootCategories = categoryTreeIndex.getRoots();
         
         // 构建分类树
         return rootCategories.stream()
@@ -37,10 +45,7 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public List<CategoryDTO> getAllCategories() {
         // 获取所有分类
-        LambdaQueryWrapper<Category> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.orderByAsc(Category::getParentId).orderByAsc(Category::getId);
-        
-        List<Category> categories = categoryMapper.selectList(queryWrapper);
+        List<Category> categories = categoryTreeIndex.getAll();
         
         return categories.stream()
                 .map(this::convertToCategoryDTO)
@@ -51,7 +56,7 @@ public class CategoryServiceImpl implements CategoryService {
         CategoryDTO dto = convertToCategoryDTO(category);
         
         // 查找子分类
-        List<Category> children = categoryMapper.findByParentId(category.getId());
+        List<Category> children = categoryTreeIndex.getChildren(category.getId());
         if (children != null && !children.isEmpty()) {
             List<CategoryDTO> childrenDTOs = children.stream()
                     .map(this::buildCategoryTree)
@@ -73,10 +78,37 @@ public class CategoryServiceImpl implements CategoryService {
         category.setCreateTime(LocalDateTime.now());
         
         categoryMapper.insert(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent());
         
         return convertToCategoryDTO(category);
     }
     
+    @Override
+    public int batchCreateCategories(List<CategoryDTO> categoryDTOs) {
+        int successCount = 0;
+        
+        for (CategoryDTO categoryDTO : categoryDTOs) {
+            try {
+                Category category = new Category();
+                category.setName(categoryDTO.getName());
+                category.setParentId(categoryDTO.getParentId());
+                category.setCreateTime(LocalDateTime.now());
+                
+                categoryMapper.insert(category);
+                successCount++;
+            } catch (Exception e) {
+                // 记录失败的情况，但继续处理
+            }
+        }
+        
+        // 全部插入后只重建一次索引
+        if (successCount > 0) {
+            eventPublisher.publishEvent(new CategoryChangedEvent());
+        }
+        
+        return successCount;
+    }
+    
     @Override
     @Transactional
     public CategoryDTO updateCategory(Long id, CategoryDTO categoryDTO) {
@@ -100,6 +132,7 @@ public class CategoryServiceImpl implements CategoryService {
             }
             
             categoryMapper.updateById(category);
+            eventPublisher.publishEvent(new CategoryChangedEvent());
             return convertToCategoryDTO(category);
         }
         return null;
@@ -109,43 +142,23 @@ public class CategoryServiceImpl implements CategoryService {
      * 检查targetId是否是categoryId的子分类
      */
     private boolean isChildCategory(Long categoryId, Long targetId) {
-        if (targetId == null) {
-            return false;
-        }
-        
-        Category targetCategory = categoryMapper.selectById(targetId);
-        if (targetCategory == null) {
-            return false;
-        }
-        
-        // 如果目标分类的父ID就是当前分类，说明是子分类
-        if (categoryId.equals(targetCategory.getParentId())) {
-            return true;
-        }
-        
-        // 递归检查上级分类
-        return isChildCategory(categoryId, targetCategory.getParentId());
+        return categoryTreeIndex.isDescendant(categoryId, targetId);
     }
     
     @Override
     @Transactional
     public void deleteCategory(Long id) {
-        // 查找该分类下的所有子分类
-        List<Category> children = categoryMapper.findByParentId(id);
-        if (children != null && !children.isEmpty()) {
-            // 递归删除所有子分类
-            for (Category child : children) {
-                deleteCategory(child.getId());
-            }
+        // 一次删除该分类及其所有子分类，子树以数据库为准，内存索引可能尚未同步其他节点的修改
+        List<Long> subtreeIds = categoryMapper.findSubtreeIds(id);
+        if (!subtreeIds.isEmpty()) {
+            categoryMapper.deleteBatchIds(subtreeIds);
         }
-        
-        // 删除当前分类
-        categoryMapper.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent());
     }
     
     @Override
     public CategoryDTO getCategoryById(Long id) {
-        Category category = categoryMapper.selectById(id);
+        Category category = categoryTreeIndex.get(id);
         if (category != null) {
             return convertToCategoryDTO(category);
         }
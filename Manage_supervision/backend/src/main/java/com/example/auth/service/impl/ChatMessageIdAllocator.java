@@ -0,0 +1,64 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.mapper.IdSequenceMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 聊天消息ID分配器
+ *
+ * 消息在写入数据库之前就要推送给接收者，因此ID需要预先分配。
+ * 每次从id_sequences表中预留一段ID在内存中发放，ID仍是较小的自增数字，前端可以直接使用。
+ */
+@Component
+public class ChatMessageIdAllocator {
+
+    private static final String SEQUENCE_NAME = "chat_message";
+
+    @Autowired
+    private IdSequenceMapper idSequenceMapper;
+
+    @Value("${chat.write.id-block-size:1000}")
+    private int blockSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private long nextId;
+
+    private long limit;
+
+    public ChatMessageIdAllocator(PlatformTransactionManager transactionManager) {
+        // 独立事务预留ID段，避免序列行锁被调用方事务长时间持有
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 分配下一个消息ID
+     */
+    public synchronized long nextId() {
+        if (nextId >= limit) {
+            Long start = transactionTemplate.execute(status -> reserveBlock());
+            if (start == null) {
+                throw new IllegalStateException("无法分配聊天消息ID");
+            }
+            nextId = start;
+            limit = start + blockSize;
+        }
+        return nextId++;
+    }
+
+    private Long reserveBlock() {
+        Long start = idSequenceMapper.lockNextId(SEQUENCE_NAME);
+        if (start == null) {
+            idSequenceMapper.initChatMessageSequence();
+            start = idSequenceMapper.lockNextId(SEQUENCE_NAME);
+        }
+        idSequenceMapper.advance(SEQUENCE_NAME, blockSize);
+        return start;
+    }
+}
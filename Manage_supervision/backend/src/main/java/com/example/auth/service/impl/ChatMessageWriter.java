@@ -0,0 +1,298 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.common.exception.BusinessException;
+import com.example.auth.mapper.ChatMessageMapper;
+import com.example.auth.mapper.ConversationMapper;
+import com.example.auth.mapper.IdSequenceMapper;
+import com.example.auth.model.entity.ChatMessage;
+import com.example.auth.model.entity.Conversation;
+import com.example.auth.model.entity.UserUnread;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 聊天消息批量写入管道（组提交）
+ *
+ * 发送方把消息放入有界内存队列后等待写入结果，由单独的写入线程把队列中已有的消息合并为一个事务：
+ * 一条多行INSERT写入消息，一条UPDATE合并本批各会话的未读数和最后消息时间，
+ * 并在同一事务中累加接收者的未读计数。事务提交后才完成各消息的Future，
+ * 调用方此时再确认发送并推送给接收者，已推送的消息一定已经落库。
+ * 队列先进先出且只有一个写入者，同一会话内的消息按发送顺序落库；消息ID预先分配，
+ * 重试前先查出已提交的消息（提交结果未知时）并跳过，不会重复写入或重复累加未读数。
+ * 各节点预留的ID段互相交错，ID顺序不等于提交顺序，因此在写入事务中锁定序列行分配提交顺序号seq，
+ * 序列行锁持有到提交，seq顺序与提交顺序一致，增量同步按seq定位不会漏掉晚提交的消息。
+ * 一批写入连续失败max-attempts次后拆成两半分别写入，单条仍然失败的消息（如参与者已被删除）
+ * 写入死信表并以异常完成，不会阻塞后续消息。
+ * 队列已满时发送方短暂等待，仍然满则拒绝发送，形成背压。
+ */
+@Component
+public class ChatMessageWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageWriter.class);
+
+    private static final String SEQ_SEQUENCE_NAME = "chat_message_seq";
+
+    @Autowired
+    private ChatMessageMapper chatMessageMapper;
+
+    @Autowired
+    private ConversationMapper conversationMapper;
+
+    @Autowired
+    private UnreadCounters unreadCounters;
+
+    @Autowired
+    private IdSequenceMapper idSequenceMapper;
+
+    @Value("${chat.write.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.write.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${chat.write.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${chat.write.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    private final BlockingQueue<Submission> queue;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private Thread writerThread;
+
+    private volatile boolean running = true;
+
+    public ChatMessageWriter(PlatformTransactionManager transactionManager,
+                             @Value("${chat.write.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        // 独立事务写入，与调用方事务无关
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        writerThread = new Thread(this::run, "chat-message-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 提交一条已分配ID的消息，队列已满时最多等待片刻，仍然满则拒绝
+     * @return 消息所在批次提交后完成的Future，写入最终失败时以异常完成
+     * @throws BusinessException 写入队列已满（code 503）
+     */
+    public CompletableFuture<Void> submit(ChatMessage message) {
+        Submission submission = new Submission(message, new CompletableFuture<>());
+        try {
+            if (!queue.offer(submission, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("聊天消息写入队列已满，拒绝消息");
+                throw new BusinessException("消息发送繁忙，请稍后重试", 503);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("消息发送被中断", 503);
+        }
+        return submission.written();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        List<Submission> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+                // 等待期间到达的消息合并到同一事务
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                // 关闭时继续写完队列中剩余的消息
+                running = false;
+            } catch (Exception e) {
+                logger.error("聊天消息写入线程异常", e);
+                batch.forEach(submission -> submission.written().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * 整批重试max-attempts次，仍然失败时拆分写入，找出无法写入的消息
+     */
+    private void writeWithRetry(List<Submission> batch) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                write(batch);
+                batch.forEach(submission -> submission.written().complete(null));
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+                logger.warn("聊天消息批量写入失败（第{}次，共{}条）: {}", attempt, batch.size(), e.getMessage());
+                if (attempt < maxAttempts && !sleepBeforeRetry(attempt)) {
+                    break;
+                }
+            }
+        }
+        split(batch, failure);
+    }
+
+    private void split(List<Submission> batch, RuntimeException failure) {
+        if (batch.size() == 1) {
+            deadLetter(batch.get(0), failure);
+            return;
+        }
+        int middle = batch.size() / 2;
+        for (List<Submission> half : List.of(batch.subList(0, middle), batch.subList(middle, batch.size()))) {
+            try {
+                write(half);
+                half.forEach(submission -> submission.written().complete(null));
+            } catch (RuntimeException e) {
+                split(half, e);
+            }
+        }
+    }
+
+    private void deadLetter(Submission submission, RuntimeException failure) {
+        ChatMessage message = submission.message();
+        logger.error("聊天消息无法写入，转入死信表, id={}, conversationId={}", message.getId(), message.getConversationId(), failure);
+        try {
+            chatMessageMapper.insertDeadLetter(message, String.valueOf(failure.getMessage()));
+        } catch (Exception e) {
+            logger.error("写入死信表失败, id={}, senderId={}, recipientId={}, content={}",
+                    message.getId(), message.getSenderId(), message.getRecipientId(), message.getContent(), e);
+        }
+        submission.written().completeExceptionally(failure);
+    }
+
+    private boolean sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMs * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            running = false;
+            return false;
+        }
+    }
+
+    private void write(List<Submission> submissions) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ChatMessage> batch = new ArrayList<>(submissions.size());
+            submissions.forEach(submission -> batch.add(submission.message()));
+
+            // 上次尝试提交结果未知时消息可能已经写入，已写入的不再写入也不再累加未读数
+            Set<Long> existing = new HashSet<>(chatMessageMapper.findExistingIds(
+                    batch.stream().map(ChatMessage::getId).collect(Collectors.toList())));
+            batch.removeIf(message -> existing.contains(message.getId()));
+            if (!batch.isEmpty()) {
+                insert(batch);
+            }
+        });
+    }
+
+    private void insert(List<ChatMessage> batch) {
+        // 按会话合并未读数和最后消息时间，两个未读映射都包含本批所有会话
+        Map<Long, Integer> unreadUser1 = new TreeMap<>();
+        Map<Long, Integer> unreadUser2 = new TreeMap<>();
+        Map<Long, LocalDateTime> lastMessageTimes = new TreeMap<>();
+        for (ChatMessage message : batch) {
+            Long conversationId = message.getConversationId();
+            Conversation conversation = message.getConversation();
+            boolean toUser1 = conversation.getUser1Id().equals(message.getRecipientId());
+            unreadUser1.merge(conversationId, toUser1 ? 1 : 0, Integer::sum);
+            unreadUser2.merge(conversationId, toUser1 ? 0 : 1, Integer::sum);
+            lastMessageTimes.merge(conversationId, message.getSentTime(),
+                    (current, next) -> next.isAfter(current) ? next : current);
+        }
+
+        // 先锁定会话再写入消息，与标记已读的加锁顺序一致
+        List<Conversation> before = conversationMapper.lockUnreadCounts(lastMessageTimes.keySet());
+        assignSeq(batch);
+        chatMessageMapper.insertBatch(batch);
+        conversationMapper.applyMessageStats(unreadUser1, unreadUser2, lastMessageTimes);
+        unreadCounters.apply(unreadDeltas(before, unreadUser1, unreadUser2));
+    }
+
+    /**
+     * 锁定提交顺序号序列并按批内顺序分配seq，行锁在事务提交时才释放，
+     * 后分配顺序号的事务一定在本事务提交之后提交
+     */
+    private void assignSeq(List<ChatMessage> batch) {
+        Long seq = idSequenceMapper.lockNextId(SEQ_SEQUENCE_NAME);
+        if (seq == null) {
+            idSequenceMapper.initChatMessageSeqSequence();
+            seq = idSequenceMapper.lockNextId(SEQ_SEQUENCE_NAME);
+        }
+        for (ChatMessage message : batch) {
+            message.setSeq(seq++);
+        }
+        idSequenceMapper.advance(SEQ_SEQUENCE_NAME, batch.size());
+    }
+
+    /**
+     * 汇总每个用户的未读消息增量，会话未读数从0变为正数时未读会话数加1
+     */
+    private Map<Long, UserUnread> unreadDeltas(List<Conversation> conversations,
+                                               Map<Long, Integer> unreadUser1,
+                                               Map<Long, Integer> unreadUser2) {
+        Map<Long, UserUnread> deltas = new HashMap<>();
+        for (Conversation conversation : conversations) {
+            addUnread(deltas, conversation.getUser1Id(), conversation.getUnreadCountUser1(),
+                    unreadUser1.getOrDefault(conversation.getId(), 0));
+            addUnread(deltas, conversation.getUser2Id(), conversation.getUnreadCountUser2(),
+                    unreadUser2.getOrDefault(conversation.getId(), 0));
+        }
+        return deltas;
+    }
+
+    private void addUnread(Map<Long, UserUnread> deltas, Long userId, int current, int added) {
+        if (added == 0) {
+            return;
+        }
+        UserUnread delta = deltas.computeIfAbsent(userId, id -> new UserUnread(id, 0, 0));
+        delta.setUnreadMessages(delta.getUnreadMessages() + added);
+        if (current == 0) {
+            delta.setUnreadConversations(delta.getUnreadConversations() + 1);
+        }
+    }
+
+    /**
+     * 等待写入的消息及其写入结果
+     */
+    private record Submission(ChatMessage message, CompletableFuture<Void> written) {
+    }
+}
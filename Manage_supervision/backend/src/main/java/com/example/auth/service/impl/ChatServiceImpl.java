@@ -2,45 +2,91 @@ package com.example.auth.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.auth.common.cache.ConversationPairCache;
+import com.example.auth.common.cache.UserPrincipalCache;
+import com.example.auth.common.cache.UserSummaryCache;
+import com.example.auth.common.exception.BusinessException;
 import com.example.auth.model.dto.ChatMessageDTO;
 import com.example.auth.model.dto.ConversationDTO;
+import com.example.auth.model.dto.CursorPageResponse;
 import com.example.auth.model.entity.ChatMessage;
 import com.example.auth.model.entity.Conversation;
 import com.example.auth.model.entity.User;
+import com.example.auth.model.entity.UserUnread;
 import com.example.auth.mapper.ChatMessageMapper;
 import com.example.auth.mapper.ConversationMapper;
 import com.example.auth.mapper.UserMapper;
 import com.example.auth.service.ChatService;
+import com.example.auth.service.UserService;
 import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 public class ChatServiceImpl implements ChatService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatServiceImpl.class);
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final ChatMessageMapper chatMessageMapper;
     private final ConversationMapper conversationMapper;
     private final UserMapper userMapper;
     private final SimpMessagingTemplate messagingTemplate;
+    private final UserService userService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ChatMessageIdAllocator chatMessageIdAllocator;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ConversationPairCache conversationPairCache;
+    private final UserSummaryCache userSummaryCache;
+    private final UnreadCounters unreadCounters;
+    private final long writeAckTimeoutMs;
 
     public ChatServiceImpl(
             ChatMessageMapper chatMessageMapper,
             ConversationMapper conversationMapper,
             UserMapper userMapper,
-            SimpMessagingTemplate messagingTemplate
+            SimpMessagingTemplate messagingTemplate,
+            UserService userService,
+            UserPrincipalCache userPrincipalCache,
+            ChatMessageIdAllocator chatMessageIdAllocator,
+            ChatMessageWriter chatMessageWriter,
+            ConversationPairCache conversationPairCache,
+            UserSummaryCache userSummaryCache,
+            UnreadCounters unreadCounters,
+            @Value("${chat.write.ack-timeout-ms:5000}") long writeAckTimeoutMs
     ) {
         this.chatMessageMapper = chatMessageMapper;
         this.conversationMapper = conversationMapper;
         this.userMapper = userMapper;
         this.messagingTemplate = messagingTemplate;
+        this.userService = userService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.chatMessageIdAllocator = chatMessageIdAllocator;
+        this.chatMessageWriter = chatMessageWriter;
+        this.conversationPairCache = conversationPairCache;
+        this.userSummaryCache = userSummaryCache;
+        this.unreadCounters = unreadCounters;
+        this.writeAckTimeoutMs = writeAckTimeoutMs;
     }
 
     // 获取用户的所有会话
@@ -48,14 +94,16 @@ public class ChatServiceImpl implements ChatService {
     public List<ConversationDTO> getConversationsForUser(User currentUser) {
         List<Conversation> conversations = conversationMapper.findByUserIdOrderByLastMessageTimeDesc(currentUser.getId());
         
-        // 补充会话的用户信息
+        // 补充会话的用户信息，所有参与者一次批量获取
+        Set<Long> userIds = new HashSet<>();
         for (Conversation conversation : conversations) {
-            if (conversation.getUser1Id() != null) {
-                conversation.setUser1(userMapper.selectById(conversation.getUser1Id()));
-            }
-            if (conversation.getUser2Id() != null) {
-                conversation.setUser2(userMapper.selectById(conversation.getUser2Id()));
-            }
+            userIds.add(conversation.getUser1Id());
+            userIds.add(conversation.getUser2Id());
+        }
+        Map<Long, User> users = userSummaryCache.getAll(userIds);
+        for (Conversation conversation : conversations) {
+            conversation.setUser1(users.get(conversation.getUser1Id()));
+            conversation.setUser2(users.get(conversation.getUser2Id()));
         }
         
         return conversations.stream()
@@ -67,19 +115,15 @@ public class ChatServiceImpl implements ChatService {
     @Override
     @Transactional
     public ConversationDTO getOrCreateConversation(User user1, User user2) {
-        Conversation conversation = conversationMapper.findByUserIds(user1.getId(), user2.getId());
+        Conversation conversation = conversationPairCache.loadOrCreate(user1.getId(), user2.getId());
         
-        if (conversation == null) {
-            conversation = new Conversation();
+        // 补充用户信息，按会话中的位置对应
+        if (user1.getId().equals(conversation.getUser1Id())) {
             conversation.setUser1(user1);
             conversation.setUser2(user2);
-            conversation.setCreatedTime(LocalDateTime.now());
-            conversation.setLastMessageTime(LocalDateTime.now());
-            conversationMapper.insert(conversation);
         } else {
-            // 补充用户信息
-            conversation.setUser1(user1);
-            conversation.setUser2(user2);
+            conversation.setUser1(user2);
+            conversation.setUser2(user1);
         }
         
         // 获取最近的消息
@@ -94,10 +138,7 @@ public class ChatServiceImpl implements ChatService {
         List<ChatMessage> messages = chatMessageMapper.selectList(queryWrapper);
         
         // 补充发送者和接收者信息
-        for (ChatMessage message : messages) {
-            message.setSender(userMapper.selectById(message.getSenderId()));
-            message.setRecipient(userMapper.selectById(message.getRecipientId()));
-        }
+        fillUsers(messages);
         
         // 按发送时间排序
         messages.sort(Comparator.comparing(ChatMessage::getSentTime));
@@ -111,19 +152,15 @@ public class ChatServiceImpl implements ChatService {
 
     // 发送纯文本消息
     @Override
-    @Transactional
     public ChatMessageDTO sendMessage(Long senderId, Long recipientId, String content) {
         return sendMessage(senderId, recipientId, content, null, null, null, null);
     }
     
-    // 发送消息（支持文件）
+    // 发送消息（支持文件）：由ChatMessageWriter与其他消息合并为一个事务落库，提交后再确认并推送给接收者
     @Override
-    @Transactional
     public ChatMessageDTO sendMessage(Long senderId, Long recipientId, String content, 
                                        String fileUrl, String fileName, String fileType, Long fileSize) {
         try {
-            System.out.println("ChatService.sendMessage() - senderId: " + senderId + ", recipientId: " + recipientId);
-            
             if (senderId == null) {
                 throw new IllegalArgumentException("发送者ID不能为空");
             }
@@ -141,61 +178,37 @@ public class ChatServiceImpl implements ChatService {
                 }
             }
             
-            // 查找发送者
-            User sender = userMapper.selectById(senderId);
+            // 查找发送者和接收者（来自已认证用户缓存）
+            User sender = userPrincipalCache.get(senderId, userService::findById);
             if (sender == null) {
-                String errorMsg = "发送者不存在 (ID: " + senderId + ")";
-                System.err.println("发送消息失败: 找不到ID为 " + senderId + " 的发送者");
-                throw new RuntimeException(errorMsg);
+                throw new RuntimeException("发送者不存在 (ID: " + senderId + ")");
             }
             
             // 检查发送者状态
             if (!"active".equals(sender.getStatus())) {
-                String errorMsg = "发送者账号未激活 (ID: " + senderId + ")";
-                System.err.println("发送消息失败: " + errorMsg);
-                throw new RuntimeException(errorMsg);
+                throw new RuntimeException("发送者账号未激活 (ID: " + senderId + ")");
             }
             
-            System.out.println("已找到发送者: " + sender.getUsername() + " (ID: " + sender.getId() + ")");
-            
-            // 查找接收者
-            User recipient = userMapper.selectById(recipientId);
+            User recipient = userPrincipalCache.get(recipientId, userService::findById);
             if (recipient == null) {
-                String errorMsg = "接收者不存在 (ID: " + recipientId + ")";
-                System.err.println("发送消息失败: 找不到ID为 " + recipientId + " 的接收者");
-                throw new RuntimeException(errorMsg);
+                throw new RuntimeException("接收者不存在 (ID: " + recipientId + ")");
             }
             
             // 检查接收者状态
             if (!"active".equals(recipient.getStatus())) {
-                String errorMsg = "接收者账号未激活 (ID: " + recipientId + ")";
-                System.err.println("发送消息失败: " + errorMsg);
-                throw new RuntimeException(errorMsg);
+                throw new RuntimeException("接收者账号未激活 (ID: " + recipientId + ")");
             }
             
-            System.out.println("已找到接收者: " + recipient.getUsername() + " (ID: " + recipient.getId() + ")");
-            
             // 获取或创建会话
-            System.out.println("查找或创建会话");
-            Conversation conversation = conversationMapper.findByUserIds(senderId, recipientId);
-            
-            if (conversation == null) {
-                conversation = new Conversation();
-                conversation.setUser1Id(senderId);
-                conversation.setUser2Id(recipientId);
-                conversation.setCreatedTime(LocalDateTime.now());
-                conversation.setLastMessageTime(LocalDateTime.now());
-                conversationMapper.insert(conversation);
-                System.out.println("已创建新会话, ID: " + conversation.getId());
-            } else {
-                System.out.println("使用现有会话, ID: " + conversation.getId());
-            }
+            Conversation conversation = conversationPairCache.getOrCreate(senderId, recipientId);
             
-            // 创建消息
+            // 创建消息，ID预先分配，写入重试时据此识别已提交的消息；seq在写入事务中分配
             ChatMessage message = new ChatMessage();
+            message.setId(chatMessageIdAllocator.nextId());
             message.setSenderId(senderId);
             message.setRecipientId(recipientId);
             message.setConversationId(conversation.getId());
+            message.setConversation(conversation);
             message.setContent(content);
             message.setRead(false);
             message.setSentTime(LocalDateTime.now());
@@ -206,37 +219,27 @@ public class ChatServiceImpl implements ChatService {
                 message.setFileName(fileName);
                 message.setFileType(fileType);
                 message.setFileSize(fileSize);
-                System.out.println("消息包含文件: " + fileName + " (" + fileType + ")");
             }
             
-            // 保存消息
-            chatMessageMapper.insert(message);
-            System.out.println("已保存消息, ID: " + message.getId());
-            
-            // 更新会话的未读消息数和最后消息时间
-            if (conversation.getUser1Id().equals(recipientId)) {
-                conversation.setUnreadCountUser1(conversation.getUnreadCountUser1() + 1);
-            } else {
-                conversation.setUnreadCountUser2(conversation.getUnreadCountUser2() + 1);
-            }
-            conversation.setLastMessageTime(message.getSentTime());
-            conversationMapper.updateById(conversation);
-            System.out.println("已更新会话的未读消息数和最后消息时间");
-            
             // 设置发送者和接收者引用，以便DTO可以访问用户信息
             message.setSender(sender);
             message.setRecipient(recipient);
             
-            // 创建DTO
-            ChatMessageDTO messageDTO = new ChatMessageDTO(message);
+            // 放入写入队列，队列已满时直接拒绝；落库后才通过WebSocket推送给接收者（即使发送方已等待超时）
+            // DTO在写入完成后创建，携带写入事务分配的seq
+            CompletableFuture<Void> written = chatMessageWriter.submit(message);
+            written.thenRun(() -> sendMessageNotification(recipientId, new ChatMessageDTO(message)));
             
-            // 通过WebSocket发送消息到前端
-            sendMessageNotification(recipientId, messageDTO);
+            // 等待落库后再向发送方确认
+            awaitWritten(written);
             
-            return messageDTO;
+            return new ChatMessageDTO(message);
+        } catch (BusinessException e) {
+            // 队列已满、等待超时等业务异常原样抛出，保留503等状态码
+            logger.warn("发送消息失败: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
-            System.err.println("发送消息时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("发送消息时发生错误", e);
             throw new RuntimeException("发送消息失败: " + e.getMessage(), e);
         }
     }
@@ -252,10 +255,7 @@ public class ChatServiceImpl implements ChatService {
         List<ChatMessage> messages = pageParam.getRecords();
         
         // 补充发送者和接收者信息
-        for (ChatMessage message : messages) {
-            message.setSender(userMapper.selectById(message.getSenderId()));
-            message.setRecipient(userMapper.selectById(message.getRecipientId()));
-        }
+        fillUsers(messages);
         
         // 按发送时间排序（升序）
         messages.sort(Comparator.comparing(ChatMessage::getSentTime));
@@ -274,16 +274,23 @@ public class ChatServiceImpl implements ChatService {
             return 0;
         }
         
-        // 更新会话的未读消息计数
-        if (conversation.getUser1Id().equals(userId)) {
-            conversation.setUnreadCountUser1(0);
-        } else if (conversation.getUser2Id().equals(userId)) {
-            conversation.setUnreadCountUser2(0);
-        } else {
+        if (!conversation.getUser1Id().equals(userId) && !conversation.getUser2Id().equals(userId)) {
             return 0; // 用户不属于该会话
         }
         
-        conversationMapper.updateById(conversation);
+        // 锁定会话读取当前未读数，更新会话的未读消息计数
+        List<Conversation> lockedRows = conversationMapper.lockUnreadCounts(List.of(conversationId));
+        if (lockedRows.isEmpty()) {
+            return 0; // 会话已被删除
+        }
+        Conversation locked = lockedRows.get(0);
+        int unread = locked.getUser1Id().equals(userId) ? locked.getUnreadCountUser1() : locked.getUnreadCountUser2();
+        conversationMapper.resetUnreadCount(conversationId, userId);
+        
+        // 同步扣减用户的未读计数
+        if (unread > 0) {
+            unreadCounters.apply(Map.of(userId, new UserUnread(userId, -unread, -1)));
+        }
         
         // 将消息标记为已读
         int updatedCount = chatMessageMapper.markAllAsRead(conversationId, userId);
@@ -311,36 +318,101 @@ public class ChatServiceImpl implements ChatService {
 
     @Override
     public List<ChatMessageDTO> getMessagesBeforeId(Long conversationId, Long messageId, int size) {
-        // 使用MyBatis-Plus分页
-        Page<ChatMessage> pageParam = new Page<>(1, size);
-        
-        // 获取指定ID之前的消息
-        pageParam = (Page<ChatMessage>) chatMessageMapper.findOlderMessages(pageParam, conversationId, messageId);
-        
-        List<ChatMessage> messages = pageParam.getRecords();
-        
+        Long seq = chatMessageMapper.findSeqById(messageId);
+        if (seq == null) {
+            return List.of();
+        }
+        return getMessageHistory(conversationId, seq, null, size).getContent();
+    }
+
+    @Override
+    public CursorPageResponse<ChatMessageDTO> getMessageHistory(Long conversationId, Long beforeSeq, Long afterSeq, int size) {
+        if (beforeSeq != null && afterSeq != null) {
+            throw new BusinessException("before和after不能同时指定");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+
+        List<ChatMessage> messages;
+        if (afterSeq != null) {
+            messages = chatMessageMapper.findAfterSeq(conversationId, afterSeq, limit + 1);
+        } else {
+            messages = chatMessageMapper.findBeforeSeq(conversationId, beforeSeq, limit + 1);
+        }
+
+        // 多查一条判断是否还有更多
+        boolean hasMore = messages.size() > limit;
+        if (hasMore) {
+            messages = messages.subList(0, limit);
+        }
+        if (afterSeq == null) {
+            messages = new ArrayList<>(messages);
+            Collections.reverse(messages);
+        }
+
         // 补充发送者和接收者信息
-        for (ChatMessage message : messages) {
-            message.setSender(userMapper.selectById(message.getSenderId()));
-            message.setRecipient(userMapper.selectById(message.getRecipientId()));
+        fillUsers(messages);
+
+        // 向前翻页时游标为本页最早的消息，增量同步时为本页最新的消息（无新消息时沿用原游标）
+        String nextCursor;
+        if (afterSeq != null) {
+            nextCursor = String.valueOf(messages.isEmpty() ? afterSeq : messages.get(messages.size() - 1).getSeq());
+        } else {
+            nextCursor = hasMore ? String.valueOf(messages.get(0).getSeq()) : null;
         }
-        
-        // 按发送时间排序（升序）
-        messages.sort(Comparator.comparing(ChatMessage::getSentTime));
-        
-        return messages.stream()
+
+        List<ChatMessageDTO> content = messages.stream()
                 .map(ChatMessageDTO::new)
                 .collect(Collectors.toList());
+        return new CursorPageResponse<>(content, nextCursor, hasMore);
+    }
+
+    @Override
+    public boolean isParticipant(Long conversationId, Long userId) {
+        Conversation conversation = conversationMapper.selectById(conversationId);
+        return conversation != null
+                && (conversation.getUser1Id().equals(userId) || conversation.getUser2Id().equals(userId));
     }
 
     @Override
     public int getUnreadMessageCount(Long userId) {
-        return chatMessageMapper.countTotalUnreadMessagesByUser(userId);
+        return unreadCounters.get(userId).getUnreadMessages();
     }
 
     @Override
     public int getUnreadConversationCount(Long userId) {
-        return conversationMapper.countConversationsWithUnreadMessages(userId);
+        return unreadCounters.get(userId).getUnreadConversations();
+    }
+
+    /**
+     * 从用户摘要缓存批量补充消息的发送者和接收者
+     */
+    private void fillUsers(List<ChatMessage> messages) {
+        Set<Long> userIds = new HashSet<>();
+        for (ChatMessage message : messages) {
+            userIds.add(message.getSenderId());
+            userIds.add(message.getRecipientId());
+        }
+        Map<Long, User> users = userSummaryCache.getAll(userIds);
+        for (ChatMessage message : messages) {
+            message.setSender(users.get(message.getSenderId()));
+            message.setRecipient(users.get(message.getRecipientId()));
+        }
+    }
+
+    /**
+     * 等待消息落库，超时或写入失败时视为发送失败（超时的消息之后仍可能落库并推送）
+     */
+    private void awaitWritten(CompletableFuture<Void> written) {
+        try {
+            written.get(writeAckTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new BusinessException("消息发送超时，请稍后重试", 503);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("消息发送被中断", 503);
+        } catch (ExecutionException e) {
+            throw new BusinessException("消息保存失败", 500, e.getCause());
+        }
     }
 
     private void sendMessageNotification(Long userId, ChatMessageDTO message) {
@@ -351,8 +423,7 @@ public class ChatServiceImpl implements ChatService {
                     message
             );
         } catch (Exception e) {
-            System.err.println("发送WebSocket通知时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("发送WebSocket通知时发生错误", e);
         }
     }
 
@@ -369,8 +440,7 @@ public class ChatServiceImpl implements ChatService {
                     errorNotification
             );
         } catch (Exception e) {
-            System.err.println("发送错误通知时发生异常: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("发送错误通知时发生异常", e);
         }
     }
 
@@ -0,0 +1,47 @@
+package com.example.auth.service.impl;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.auth.common.cache.CategoryTreeIndex;
+import com.example.auth.mapper.ProductMapper;
+import com.example.auth.model.dto.PageResponse;
+import com.example.auth.service.ProductSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 基于MySQL FULLTEXT（ngram分词）的商品检索
+ * 倒排索引由InnoDB随商品的增删改同步维护，中文按ngram切分，结果按MATCH相关度排序
+ * 单字关键字短于ngram分词长度，退化为LIKE匹配
+ */
+@Service
+public class FulltextProductSearchService implements ProductSearchService {
+
+    // 与MySQL的ngram_token_size保持一致，更短的关键字在全文索引中查不到
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CategoryTreeIndex categoryTreeIndex;
+
+    @Override
+    public PageResponse<Long> search(String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                     Integer minStock, int page, int size) {
+        List<Long> categoryIds = categoryId != null ? categoryTreeIndex.getSubtreeIds(categoryId) : null;
+
+        String trimmed = keyword.trim();
+        String likePattern = null;
+        if (trimmed.codePointCount(0, trimmed.length()) < NGRAM_TOKEN_SIZE) {
+            likePattern = "%" + trimmed.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        }
+
+        Page<Long> idPage = productMapper.searchIds(new Page<>(page, size), trimmed, likePattern,
+                categoryIds, minPrice, maxPrice, minStock);
+
+        return new PageResponse<>(idPage.getRecords(), idPage.getTotal(), page, size);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.common.event.ProductChangedEvent;
+import com.example.auth.mapper.ProductMapper;
+import com.example.auth.mapper.StockLedgerJournalMapper;
+import com.example.auth.model.entity.StockLedgerJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 热点商品内存库存账本
+ *
+ * 配置为热点的商品在内存原子计数器上预留库存，同时在下单事务中写入库存流水，
+ * 由定时任务批量回写到products.stock，避免所有买家争抢同一行锁。
+ * 启动时会先把遗留的流水回写，计数器按"数据库库存 + 未回写流水"懒加载，保证宕机后可恢复。
+ * 计数器只在本节点内有效，仅适用于单节点部署。
+ */
+@Component
+public class HotStockLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockLedger.class);
+
+    private static final int FLUSH_BATCH_SIZE = 5000;
+
+    @Autowired
+    private StockLedgerJournalMapper journalMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${stock.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${stock.ledger.hot-product-ids:}")
+    private Set<Long> hotProductIds;
+
+    private final Map<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 判断商品是否由内存账本管理库存
+     */
+    public boolean isHot(Long productId) {
+        return enabled && hotProductIds.contains(productId);
+    }
+
+    /**
+     * 在内存计数器上预留库存并写入扣减流水，所在事务回滚时自动归还计数器
+     * @param quantities 商品ID -> 购买数量
+     * @return 库存不足的商品ID，全部预留成功时返回null
+     */
+    public Long tryReserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!tryDecrement(counter(entry.getKey()), entry.getValue())) {
+                reserved.forEach((productId, quantity) -> counter(productId).addAndGet(quantity));
+                return entry.getKey();
+            }
+            reserved.put(entry.getKey(), entry.getValue());
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reserved.forEach((productId, quantity) -> counter(productId).addAndGet(quantity));
+                    }
+                }
+            });
+        }
+
+        Map<Long, Integer> deltas = quantities.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> -entry.getValue(), Integer::sum, TreeMap::new));
+        journalMapper.insertBatch(deltas);
+        return null;
+    }
+
+    /**
+     * 写入归还流水，所在事务提交后再增加计数器，避免归还的库存在回滚前被别人买走
+     * @param quantities 商品ID -> 归还数量
+     */
+    public void release(Map<Long, Integer> quantities) {
+        // 先加载计数器，保证加载结果不包含本次流水
+        quantities.keySet().forEach(this::counter);
+
+        journalMapper.insertBatch(quantities);
+
+        Runnable apply = () -> quantities.forEach((productId, quantity) -> counter(productId).addAndGet(quantity));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * 把商品可用库存直接改为指定值：按当前计数器换算成变化量写入流水，计数器不丢弃，
+     * 进行中的预留和归还仍作用在同一个计数器上，不会重复计算。
+     * 减少的库存立即从计数器扣除（回滚时归还），增加的库存在事务提交后才生效
+     * @param productId 热点商品ID
+     * @param target 修改后的可用库存
+     */
+    public void adjustTo(Long productId, int target) {
+        AtomicInteger counter = counter(productId);
+        int delta;
+        if (target < counter.get()) {
+            int current;
+            do {
+                current = counter.get();
+            } while (current > target && !counter.compareAndSet(current, target));
+            delta = Math.min(target - current, 0);
+            if (delta == 0) {
+                return;
+            }
+            int restore = -delta;
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            counter.addAndGet(restore);
+                        }
+                    }
+                });
+            }
+            journalMapper.insertBatch(Map.of(productId, delta));
+        } else {
+            delta = target - counter.get();
+            if (delta <= 0) {
+                return;
+            }
+            int increase = delta;
+            journalMapper.insertBatch(Map.of(productId, increase));
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        counter.addAndGet(increase);
+                    }
+                });
+            } else {
+                counter.addAndGet(increase);
+            }
+        }
+    }
+
+    /**
+     * 定时把库存流水汇总后批量回写到products.stock
+     */
+    @Scheduled(fixedDelayString = "${stock.ledger.flush-interval-ms:1000}")
+    public void flush() {
+        if (enabled) {
+            drain();
+        }
+    }
+
+    /**
+     * 启动时回写上次运行遗留的流水
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        int flushed = drain();
+        if (flushed > 0) {
+            logger.info("启动时回写遗留库存流水: {} 条", flushed);
+        }
+    }
+
+    private int drain() {
+        int total = 0;
+        Integer flushed;
+        do {
+            flushed = transactionTemplate.execute(status -> flushBatch());
+            total += flushed != null ? flushed : 0;
+        } while (flushed != null && flushed == FLUSH_BATCH_SIZE);
+        return total;
+    }
+
+    private int flushBatch() {
+        List<StockLedgerJournal> pending = journalMapper.lockPending(FLUSH_BATCH_SIZE);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // 同一商品的流水合并为一个净变化量
+        Map<Long, Integer> deltas = pending.stream()
+                .collect(Collectors.toMap(StockLedgerJournal::getProductId, StockLedgerJournal::getDelta, Integer::sum, TreeMap::new));
+        deltas.values().removeIf(delta -> delta == 0);
+
+        if (!deltas.isEmpty()) {
+            productMapper.increaseStockBatch(deltas);
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(new ArrayList<>(deltas.keySet())));
+        }
+        journalMapper.deleteUpTo(pending.get(pending.size() - 1).getId());
+        return pending.size();
+    }
+
+    private AtomicInteger counter(Long productId) {
+        return counters.computeIfAbsent(productId, id -> {
+            Integer available = journalMapper.findAvailableStock(id);
+            return new AtomicInteger(available != null ? available : 0);
+        });
+    }
+
+    private boolean tryDecrement(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+}
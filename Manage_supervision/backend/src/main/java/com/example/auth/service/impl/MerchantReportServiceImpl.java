@@ -1,13 +1,11 @@
 package com.example.auth.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.example.auth.mapper.OrderItemMapper;
-import com.example.auth.mapper.OrderMapper;
+import com.example.auth.common.cache.MerchantOrderStatsCache;
+import com.example.auth.mapper.MerchantDailyStatsMapper;
 import com.example.auth.model.dto.MerchantRevenueReportDTO;
 import com.example.auth.model.dto.MerchantRevenueReportDTO.RevenueSource;
 import com.example.auth.model.dto.MerchantRevenueReportDTO.StatusDistribution;
-import com.example.auth.model.entity.Order;
-import com.example.auth.model.entity.OrderItem;
+import com.example.auth.model.entity.MerchantDailyStats;
 import com.example.auth.service.MerchantReportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,100 +13,68 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class MerchantReportServiceImpl implements MerchantReportService {
 
     @Autowired
-    private OrderMapper orderMapper;
+    private MerchantDailyStatsMapper merchantDailyStatsMapper;
     
     @Autowired
-    private OrderItemMapper orderItemMapper;
+    private MerchantOrderStatsCache merchantOrderStatsCache;
 
     @Override
     public MerchantRevenueReportDTO getMerchantRevenueReport(Long merchantId, String timeRange) {
         MerchantRevenueReportDTO report = new MerchantRevenueReportDTO();
         
-        // 获取商家所有订单项
-        LambdaQueryWrapper<OrderItem> orderItemQuery = new LambdaQueryWrapper<>();
-        orderItemQuery.eq(OrderItem::getMerchantId, merchantId);
-        List<OrderItem> allOrderItems = orderItemMapper.selectList(orderItemQuery);
-        
-        // 获取所有关联的订单ID
-        Set<Long> orderIds = allOrderItems.stream()
-                .map(OrderItem::getOrderId)
-                .collect(Collectors.toSet());
-        
-        // 获取所有关联订单
-        List<Order> orders = new ArrayList<>();
-        if (!orderIds.isEmpty()) {
-            LambdaQueryWrapper<Order> orderQuery = new LambdaQueryWrapper<>();
-            orderQuery.in(Order::getId, orderIds);
-            orders = orderMapper.selectList(orderQuery);
-        }
-        
-        // 按订单状态分组
-        Map<String, List<Order>> ordersByStatus = orders.stream()
-                .collect(Collectors.groupingBy(Order::getStatus));
+        // 按状态汇总的金额和订单数（来自每日统计表）
+        Map<String, MerchantDailyStats> totalsByStatus = getTotalsByStatus(merchantId);
         
         // 计算总收入 (已完成的订单)
-        List<Order> completedOrders = ordersByStatus.getOrDefault("completed", Collections.emptyList());
-        BigDecimal totalRevenue = calculateTotalRevenue(completedOrders, allOrderItems, merchantId);
+        BigDecimal totalRevenue = revenueOf(totalsByStatus.get("completed"));
         
         // 计算总退款 (退款的订单)
-        List<Order> refundedOrders = ordersByStatus.getOrDefault("refunded", Collections.emptyList());
-        BigDecimal totalRefunds = calculateTotalRevenue(refundedOrders, allOrderItems, merchantId);
+        BigDecimal totalRefunds = totalsByStatus.values().stream()
+                .map(MerchantDailyStats::getRefunds)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        
+        int totalOrders = totalsByStatus.values().stream()
+                .mapToInt(MerchantDailyStats::getOrderCount)
+                .sum();
         
         // 设置基础统计数据
         report.setTotalRevenue(totalRevenue);
-        report.setTotalOrders(orders.size());
+        report.setTotalOrders(totalOrders);
         report.setTotalRefunds(totalRefunds);
         report.setTotalAfterSales(0); // 售后功能已移除
         
+        // 一次读取近六个月的每日汇总，同时用于收入趋势和每月订单数
+        LocalDate today = LocalDate.now();
+        LocalDate firstMonth = today.minusMonths(5).withDayOfMonth(1);
+        Map<LocalDate, MerchantDailyStats> statsByDay = merchantDailyStatsMapper.sumByDaySince(merchantId, firstMonth).stream()
+                .collect(Collectors.toMap(MerchantDailyStats::getDay, Function.identity()));
+        
         // 生成收入趋势数据
         int days = "week".equals(timeRange) ? 7 : 30;
-        LocalDate today = LocalDate.now();
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("M/d");
         
         List<String> dates = new ArrayList<>();
         List<BigDecimal> revenue = new ArrayList<>();
         List<BigDecimal> refunds = new ArrayList<>();
         
-        // 按日期分组订单
-        Map<LocalDate, List<Order>> ordersByDate = orders.stream()
-                .filter(order -> order.getCreateTime() != null)
-                .collect(Collectors.groupingBy(
-                        order -> order.getCreateTime().toLocalDate()
-                ));
-        
-        // 按日期分组退款订单
-        Map<LocalDate, List<Order>> refundsByDate = refundedOrders.stream()
-                .filter(order -> order.getUpdateTime() != null)
-                .collect(Collectors.groupingBy(
-                        order -> order.getUpdateTime().toLocalDate()
-                ));
-        
         // 生成每天的收入和退款数据
         for (int i = days - 1; i >= 0; i--) {
             LocalDate date = today.minusDays(i);
             dates.add(date.format(dateFormatter));
             
-            // 查找当天的订单并计算收入
-            List<Order> dailyOrders = ordersByDate.getOrDefault(date, Collections.emptyList())
-                    .stream()
-                    .filter(order -> "completed".equals(order.getStatus()))
-                    .collect(Collectors.toList());
-            BigDecimal dailyRevenue = calculateTotalRevenue(dailyOrders, allOrderItems, merchantId);
-            revenue.add(dailyRevenue);
-            
-            // 查找当天的退款订单并计算退款金额
-            List<Order> dailyRefunds = refundsByDate.getOrDefault(date, Collections.emptyList());
-            BigDecimal dailyRefund = calculateTotalRevenue(dailyRefunds, allOrderItems, merchantId);
-            refunds.add(dailyRefund);
+            MerchantDailyStats daily = statsByDay.get(date);
+            revenue.add(daily != null ? daily.getRevenue() : BigDecimal.ZERO);
+            refunds.add(daily != null ? daily.getRefunds() : BigDecimal.ZERO);
         }
         
         report.setDates(dates);
@@ -142,20 +108,17 @@ public class MerchantReportServiceImpl implements MerchantReportService {
         List<Integer> orderCounts = new ArrayList<>();
         List<Integer> afterSaleCounts = new ArrayList<>();
         
-        // 按月份分组订单
-        Map<String, List<Order>> ordersByMonth = orders.stream()
-                .filter(order -> order.getCreateTime() != null)
+        // 按月份汇总订单数
+        Map<YearMonth, Integer> ordersByMonth = statsByDay.values().stream()
                 .collect(Collectors.groupingBy(
-                        order -> order.getCreateTime().format(DateTimeFormatter.ofPattern("yyyy-MM"))
+                        daily -> YearMonth.from(daily.getDay()),
+                        Collectors.summingInt(MerchantDailyStats::getOrderCount)
                 ));
         
         // 生成每月的订单数和售后数
-        LocalDate currentDate = LocalDate.now();
         for (int i = 5; i >= 0; i--) {
-            LocalDate monthDate = currentDate.minusMonths(i);
-            String monthKey = monthDate.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-            
-            orderCounts.add(ordersByMonth.getOrDefault(monthKey, Collections.emptyList()).size());
+            YearMonth month = YearMonth.from(today.minusMonths(i));
+            orderCounts.add(ordersByMonth.getOrDefault(month, 0));
             afterSaleCounts.add(0); // 售后功能已移除，所以设置为0
         }
         
@@ -167,11 +130,11 @@ public class MerchantReportServiceImpl implements MerchantReportService {
         List<StatusDistribution> orderStatus = new ArrayList<>();
         
         // 添加各种订单状态的统计
-        addStatusDistribution(orderStatus, "待付款", ordersByStatus.getOrDefault("pending", Collections.emptyList()).size());
-        addStatusDistribution(orderStatus, "待发货", ordersByStatus.getOrDefault("paid", Collections.emptyList()).size());
-        addStatusDistribution(orderStatus, "待收货", ordersByStatus.getOrDefault("shipped", Collections.emptyList()).size());
-        addStatusDistribution(orderStatus, "已完成", ordersByStatus.getOrDefault("completed", Collections.emptyList()).size());
-        addStatusDistribution(orderStatus, "已取消", ordersByStatus.getOrDefault("cancelled", Collections.emptyList()).size());
+        addStatusDistribution(orderStatus, "待付款", orderCountOf(totalsByStatus.get("pending")));
+        addStatusDistribution(orderStatus, "待发货", orderCountOf(totalsByStatus.get("paid")));
+        addStatusDistribution(orderStatus, "待收货", orderCountOf(totalsByStatus.get("shipped")));
+        addStatusDistribution(orderStatus, "已完成", orderCountOf(totalsByStatus.get("completed")));
+        addStatusDistribution(orderStatus, "已取消", orderCountOf(totalsByStatus.get("cancelled")));
         
         report.setOrderStatus(orderStatus);
         
@@ -182,42 +145,29 @@ public class MerchantReportServiceImpl implements MerchantReportService {
     public Map<String, Object> getOrderStatusDistribution(Long merchantId) {
         Map<String, Object> result = new HashMap<>();
         
-        // 获取商家所有订单项
-        LambdaQueryWrapper<OrderItem> orderItemQuery = new LambdaQueryWrapper<>();
-        orderItemQuery.eq(OrderItem::getMerchantId, merchantId);
-        List<OrderItem> allOrderItems = orderItemMapper.selectList(orderItemQuery);
-        
-        // 获取所有关联的订单ID
-        Set<Long> orderIds = allOrderItems.stream()
-                .map(OrderItem::getOrderId)
-                .collect(Collectors.toSet());
-        
-        // 获取所有关联订单
-        List<Order> orders = new ArrayList<>();
-        if (!orderIds.isEmpty()) {
-            LambdaQueryWrapper<Order> orderQuery = new LambdaQueryWrapper<>();
-            orderQuery.in(Order::getId, orderIds);
-            orders = orderMapper.selectList(orderQuery);
-        }
-        
-        // 按订单状态分组
-        Map<String, List<Order>> ordersByStatus = orders.stream()
-                .collect(Collectors.groupingBy(Order::getStatus));
+        // 按状态汇总的订单数，来自每日统计表，带短期缓存
+        Map<String, MerchantDailyStats> totalsByStatus = getTotalsByStatus(merchantId);
         
         List<Map<String, Object>> data = new ArrayList<>();
         
         // 添加各种订单状态的统计
-        addStatusData(data, "待付款", ordersByStatus.getOrDefault("pending", Collections.emptyList()).size());
-        addStatusData(data, "待发货", ordersByStatus.getOrDefault("paid", Collections.emptyList()).size());
-        addStatusData(data, "待收货", ordersByStatus.getOrDefault("shipped", Collections.emptyList()).size());
-        addStatusData(data, "已完成", ordersByStatus.getOrDefault("completed", Collections.emptyList()).size());
-        addStatusData(data, "已取消", ordersByStatus.getOrDefault("cancelled", Collections.emptyList()).size());
+        addStatusData(data, "待付款", orderCountOf(totalsByStatus.get("pending")));
+        addStatusData(data, "待发货", orderCountOf(totalsByStatus.get("paid")));
+        addStatusData(data, "待收货", orderCountOf(totalsByStatus.get("shipped")));
+        addStatusData(data, "已完成", orderCountOf(totalsByStatus.get("completed")));
+        addStatusData(data, "已取消", orderCountOf(totalsByStatus.get("cancelled")));
         
         result.put("data", data);
         
         return result;
     }
     
+    // 商家各状态的订单数和金额汇总（状态 -> 汇总）
+    private Map<String, MerchantDailyStats> getTotalsByStatus(Long merchantId) {
+        return merchantOrderStatsCache.getTotals(merchantId, id -> merchantDailyStatsMapper.sumByStatus(id).stream()
+                .collect(Collectors.toMap(MerchantDailyStats::getStatus, Function.identity())));
+    }
+    
     // 生成过去六个月的月份名称列表
     private List<String> generateLastSixMonths() {
         List<String> months = new ArrayList<>();
@@ -232,24 +182,12 @@ public class MerchantReportServiceImpl implements MerchantReportService {
         return months;
     }
     
-    // 计算指定订单列表中属于该商家的总收入
-    private BigDecimal calculateTotalRevenue(List<Order> orders, List<OrderItem> allOrderItems, Long merchantId) {
-        if (orders.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        
-        // 获取所有订单ID
-        Set<Long> orderIds = orders.stream()
-                .map(Order::getId)
-                .collect(Collectors.toSet());
-        
-        // 过滤出属于这些订单且属于该商家的订单项
-        BigDecimal totalRevenue = allOrderItems.stream()
-                .filter(item -> orderIds.contains(item.getOrderId()) && item.getMerchantId().equals(merchantId))
-                .map(OrderItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return totalRevenue;
+    private BigDecimal revenueOf(MerchantDailyStats totals) {
+        return totals != null ? totals.getRevenue() : BigDecimal.ZERO;
+    }
+    
+    private int orderCountOf(MerchantDailyStats totals) {
+        return totals != null ? totals.getOrderCount() : 0;
     }
     
     // 添加订单状态分布
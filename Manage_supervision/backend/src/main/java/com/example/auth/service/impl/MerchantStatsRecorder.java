@@ -0,0 +1,190 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.common.event.MerchantOrdersChangedEvent;
+import com.example.auth.mapper.MerchantDailyStatsMapper;
+import com.example.auth.mapper.OrderItemMapper;
+import com.example.auth.model.entity.MerchantDailyStats;
+import com.example.auth.model.entity.Order;
+import com.example.auth.model.entity.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 商家每日统计维护
+ *
+ * 订单创建和每次状态变化时，在同一事务中把订单各商家的金额从旧状态行移到新状态行，
+ * 退款额外记入退款当天的refunded行。报表只读取merchant_daily_stats中的少量汇总行。
+ * 统计表为空时（首次部署或清空后）启动时从订单明细按商家逐个重建。
+ */
+@Component
+public class MerchantStatsRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(MerchantStatsRecorder.class);
+
+    private static final Comparator<MerchantDailyStats> KEY_ORDER = Comparator
+            .comparing(MerchantDailyStats::getMerchantId)
+            .thenComparing(MerchantDailyStats::getDay)
+            .thenComparing(MerchantDailyStats::getStatus);
+
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    @Autowired
+    private MerchantDailyStatsMapper merchantDailyStatsMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${report.merchant-stats.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    /**
+     * 记录新创建的订单
+     */
+    public void recordCreated(Order order, List<OrderItem> orderItems) {
+        Map<Long, BigDecimal> amounts = orderItems.stream()
+                .filter(orderItem -> orderItem.getMerchantId() != null)
+                .collect(Collectors.toMap(OrderItem::getMerchantId, OrderItem::getSubtotal, BigDecimal::add));
+
+        Map<String, MerchantDailyStats> deltas = new LinkedHashMap<>();
+        LocalDate day = order.getCreateTime().toLocalDate();
+        amounts.forEach((merchantId, amount) ->
+                add(deltas, merchantId, day, order.getStatus(), amount, BigDecimal.ZERO, 1));
+        apply(deltas);
+    }
+
+    /**
+     * 记录订单状态变化，order为已更新为新状态的订单
+     * @param previousStatus 变化前的状态
+     */
+    public void recordTransition(Order order, String previousStatus) {
+        if (order.getStatus().equals(previousStatus)) {
+            return;
+        }
+
+        Map<String, MerchantDailyStats> deltas = new LinkedHashMap<>();
+        LocalDate day = order.getCreateTime().toLocalDate();
+        for (OrderItem total : orderItemMapper.sumSubtotalByMerchant(order.getId())) {
+            if (total.getMerchantId() == null) {
+                continue;
+            }
+            BigDecimal amount = total.getSubtotal();
+            add(deltas, total.getMerchantId(), day, previousStatus, amount.negate(), BigDecimal.ZERO, -1);
+            add(deltas, total.getMerchantId(), day, order.getStatus(), amount, BigDecimal.ZERO, 1);
+            if ("refunded".equals(order.getStatus())) {
+                add(deltas, total.getMerchantId(), LocalDate.now(), "refunded", BigDecimal.ZERO, amount, 0);
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * 批量记录同一状态下的订单变为各自的新状态（如超时批量取消），合并为一次写入
+     * @param orders 已更新为新状态的订单
+     * @param previousStatus 变化前的状态
+     * @param orderItems 这些订单的全部订单商品
+     */
+    public void recordTransitions(List<Order> orders, String previousStatus, List<OrderItem> orderItems) {
+        Map<Long, List<OrderItem>> itemsByOrder = orderItems.stream()
+                .filter(orderItem -> orderItem.getMerchantId() != null)
+                .collect(Collectors.groupingBy(OrderItem::getOrderId));
+
+        Map<String, MerchantDailyStats> deltas = new LinkedHashMap<>();
+        for (Order order : orders) {
+            if (order.getStatus().equals(previousStatus)) {
+                continue;
+            }
+            LocalDate day = order.getCreateTime().toLocalDate();
+            Map<Long, BigDecimal> amounts = itemsByOrder.getOrDefault(order.getId(), List.of()).stream()
+                    .collect(Collectors.toMap(OrderItem::getMerchantId, OrderItem::getSubtotal, BigDecimal::add));
+            amounts.forEach((merchantId, amount) -> {
+                add(deltas, merchantId, day, previousStatus, amount.negate(), BigDecimal.ZERO, -1);
+                add(deltas, merchantId, day, order.getStatus(), amount, BigDecimal.ZERO, 1);
+            });
+        }
+        apply(deltas);
+    }
+
+    /**
+     * 统计表为空时从订单明细重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup && !merchantDailyStatsMapper.hasAny()) {
+            int merchants = rebuildAll();
+            if (merchants > 0) {
+                logger.info("已重建商家每日统计: {} 个商家", merchants);
+            }
+        }
+    }
+
+    /**
+     * 按商家逐个重建统计，每个商家一个事务
+     * @return 重建的商家数
+     */
+    public int rebuildAll() {
+        List<Long> merchantIds = orderItemMapper.findMerchantIds();
+        for (Long merchantId : merchantIds) {
+            rebuild(merchantId);
+        }
+        return merchantIds.size();
+    }
+
+    /**
+     * 重建单个商家的统计
+     */
+    public void rebuild(Long merchantId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            merchantDailyStatsMapper.deleteByMerchantId(merchantId);
+            merchantDailyStatsMapper.rebuildOrders(merchantId);
+            merchantDailyStatsMapper.rebuildRefunds(merchantId);
+            eventPublisher.publishEvent(new MerchantOrdersChangedEvent(List.of(merchantId)));
+        });
+    }
+
+    private void add(Map<String, MerchantDailyStats> deltas, Long merchantId, LocalDate day, String status,
+                     BigDecimal revenue, BigDecimal refunds, int orderCount) {
+        deltas.merge(merchantId + "|" + day + "|" + status,
+                new MerchantDailyStats(merchantId, day, status, revenue, refunds, orderCount),
+                (current, delta) -> {
+                    current.setRevenue(current.getRevenue().add(delta.getRevenue()));
+                    current.setRefunds(current.getRefunds().add(delta.getRefunds()));
+                    current.setOrderCount(current.getOrderCount() + delta.getOrderCount());
+                    return current;
+                });
+    }
+
+    private void apply(Map<String, MerchantDailyStats> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<MerchantDailyStats> sorted = new ArrayList<>(deltas.values());
+        sorted.sort(KEY_ORDER);
+        merchantDailyStatsMapper.applyDeltas(sorted);
+
+        Set<Long> merchantIds = sorted.stream()
+                .map(MerchantDailyStats::getMerchantId)
+                .collect(Collectors.toSet());
+        eventPublisher.publishEvent(new MerchantOrdersChangedEvent(merchantIds));
+    }
+}
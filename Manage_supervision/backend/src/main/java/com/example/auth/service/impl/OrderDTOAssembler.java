@@ -0,0 +1,176 @@
+package com.example.auth.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.auth.mapper.OrderItemMapper;
+import com.example.auth.mapper.ProductMapper;
+import com.example.auth.mapper.UserMapper;
+import com.example.auth.model.dto.OrderDTO;
+import com.example.auth.model.dto.OrderItemDTO;
+import com.example.auth.model.dto.PaymentDTO;
+import com.example.auth.model.entity.Order;
+import com.example.auth.model.entity.OrderItem;
+import com.example.auth.model.entity.Product;
+import com.example.auth.model.entity.User;
+import com.example.auth.service.PaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 订单DTO批量组装器
+ * 整页订单的商品、支付、用户名和商品图片各用一次IN查询加载后在内存中拼装，查询次数与页大小无关
+ */
+@Component
+public class OrderDTOAssembler {
+
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    /**
+     * 分页转换为DTO
+     */
+    public Page<OrderDTO> assemble(Page<Order> orderPage) {
+        Page<OrderDTO> dtoPage = new Page<>(orderPage.getCurrent(), orderPage.getSize(), orderPage.getTotal());
+        dtoPage.setRecords(assemble(orderPage.getRecords()));
+        return dtoPage;
+    }
+
+    /**
+     * 批量转换为DTO（带订单商品和支付信息）
+     */
+    public List<OrderDTO> assemble(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> orderIds = orders.stream().map(Order::getId).collect(Collectors.toList());
+        Map<Long, List<OrderItem>> itemsByOrderId = orderItemMapper.findByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItem::getOrderId));
+        Map<Long, List<PaymentDTO>> paymentsByOrderId = paymentService.getPaymentsByOrders(orders);
+
+        List<OrderItem> allItems = itemsByOrderId.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        Map<Long, String> usernames = loadUsernames(orders, allItems);
+        Map<Long, String> imageUrls = loadImageUrls(allItems);
+
+        return orders.stream().map(order -> {
+            List<PaymentDTO> payments = paymentsByOrderId.getOrDefault(order.getId(), List.of());
+            return convertToDTO(order, itemsByOrderId.get(order.getId()),
+                    payments.isEmpty() ? null : payments.get(0), usernames, imageUrls);
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * 单个订单转换为DTO（订单商品已加载）
+     */
+    public OrderDTO assemble(Order order, List<OrderItem> orderItems, PaymentDTO payment) {
+        return convertToDTO(order, orderItems, payment,
+                loadUsernames(List.of(order), orderItems), loadImageUrls(orderItems));
+    }
+
+    private OrderDTO convertToDTO(Order order, List<OrderItem> orderItems, PaymentDTO payment,
+                                  Map<Long, String> usernames, Map<Long, String> imageUrls) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(order.getId());
+        dto.setOrderNumber(order.getOrderNumber());
+        dto.setUserId(order.getUserId());
+        dto.setUsername(usernames.get(order.getUserId()));
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setStatus(order.getStatus());
+        dto.setAfterSaleStatus(order.getAfterSaleStatus());
+        dto.setAfterSaleReason(order.getAfterSaleReason());
+        dto.setCreateTime(order.getCreateTime());
+        dto.setUpdateTime(order.getUpdateTime());
+        dto.setAddress(order.getAddress());
+        dto.setPhone(order.getPhone());
+        dto.setRecipientName(order.getRecipientName());
+        dto.setRemark(order.getRemark());
+
+        // 设置订单商品
+        if (orderItems != null && !orderItems.isEmpty()) {
+            List<OrderItemDTO> itemDTOs = orderItems.stream()
+                    .map(orderItem -> convertToDTO(orderItem, usernames, imageUrls))
+                    .collect(Collectors.toList());
+            dto.setItems(itemDTOs);
+        }
+
+        // 设置支付信息
+        dto.setPayment(payment);
+
+        return dto;
+    }
+
+    private OrderItemDTO convertToDTO(OrderItem orderItem, Map<Long, String> usernames, Map<Long, String> imageUrls) {
+        OrderItemDTO dto = new OrderItemDTO();
+        dto.setId(orderItem.getId());
+        dto.setOrderId(orderItem.getOrderId());
+        dto.setProductId(orderItem.getProductId());
+        dto.setProductName(orderItem.getProductName());
+        dto.setProductPrice(orderItem.getProductPrice());
+        dto.setQuantity(orderItem.getQuantity());
+        dto.setSubtotal(orderItem.getSubtotal());
+        dto.setMerchantId(orderItem.getMerchantId());
+        dto.setMerchantName(usernames.get(orderItem.getMerchantId()));
+        dto.setProductImageUrl(imageUrls.get(orderItem.getProductId()));
+        return dto;
+    }
+
+    /**
+     * 一次查询加载下单用户和商家的用户名
+     */
+    private Map<Long, String> loadUsernames(List<Order> orders, Collection<OrderItem> orderItems) {
+        Set<Long> userIds = new HashSet<>();
+        orders.forEach(order -> userIds.add(order.getUserId()));
+        if (orderItems != null) {
+            orderItems.forEach(orderItem -> userIds.add(orderItem.getMerchantId()));
+        }
+        userIds.remove(null);
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return userMapper.selectList(new LambdaQueryWrapper<User>()
+                        .select(User::getId, User::getUsername)
+                        .in(User::getId, userIds))
+                .stream()
+                .filter(user -> user.getUsername() != null)
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+    }
+
+    /**
+     * 一次查询加载商品图片
+     */
+    private Map<Long, String> loadImageUrls(Collection<OrderItem> orderItems) {
+        if (orderItems == null || orderItems.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<Long> productIds = orderItems.stream()
+                .map(OrderItem::getProductId)
+                .collect(Collectors.toSet());
+
+        return productMapper.selectList(new LambdaQueryWrapper<Product>()
+                        .select(Product::getId, Product::getImageUrl)
+                        .in(Product::getId, productIds))
+                .stream()
+                .filter(product -> product.getImageUrl() != null)
+                .collect(Collectors.toMap(Product::getId, Product::getImageUrl));
+    }
+}
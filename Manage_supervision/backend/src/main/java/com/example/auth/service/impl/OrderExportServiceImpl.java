@@ -0,0 +1,201 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.common.exception.BusinessException;
+import com.example.auth.mapper.OrderMapper;
+import com.example.auth.model.dto.OrderExportRow;
+import com.example.auth.service.OrderExportService;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 订单导出
+ *
+ * 一次联表查询按订单商品逐行读取（MyBatis Cursor + MySQL流式结果集），读一行写一行到响应输出流，
+ * 内存占用与导出行数无关；客户端读得慢时写出阻塞，数据库读取随之暂停。
+ * 同时进行的导出总数和每个用户（商家或管理员）的导出数都有上限，超出时直接拒绝。
+ * 目前只支持CSV（UTF-8 BOM，可直接用Excel打开）。
+ */
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportServiceImpl.class);
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String HEADER = "订单号,下单时间,订单状态,售后状态,订单金额,买家,收货人,电话,地址," +
+            "商品ID,商品名称,单价,数量,小计,商家ID";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Semaphore permits;
+
+    private final int maxConcurrentPerUser;
+
+    // 用户ID -> 正在进行的导出数
+    private final Map<Long, Integer> running = new ConcurrentHashMap<>();
+
+    public OrderExportServiceImpl(PlatformTransactionManager transactionManager,
+                                  @Value("${order.export.max-concurrent:4}") int maxConcurrent,
+                                  @Value("${order.export.max-concurrent-per-user:1}") int maxConcurrentPerUser) {
+        // 流式结果集只能在同一连接上遍历，整个导出在一个只读事务中完成
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrentPerUser = maxConcurrentPerUser;
+    }
+
+    @Override
+    public StreamingResponseBody exportMerchantOrders(Long merchantId) {
+        return export(merchantId, () -> orderMapper.streamExportRowsByMerchantId(merchantId));
+    }
+
+    @Override
+    public StreamingResponseBody exportAllOrders(Long operatorId, String orderNumber, String status, Long userId) {
+        return export(operatorId, () -> orderMapper.streamExportRows(orderNumber, status, userId));
+    }
+
+    /**
+     * 占用导出名额后返回响应体，名额在写出结束（包括客户端断开）后归还
+     */
+    private StreamingResponseBody export(Long ownerId, Supplier<Cursor<OrderExportRow>> query) {
+        acquire(ownerId);
+        return out -> {
+            try {
+                long start = System.currentTimeMillis();
+                long rows = write(query, out);
+                logger.info("订单导出完成, userId={}, 行数={}, 耗时={}ms", ownerId, rows, System.currentTimeMillis() - start);
+            } finally {
+                release(ownerId);
+            }
+        };
+    }
+
+    private void acquire(Long ownerId) {
+        if (!permits.tryAcquire()) {
+            throw new BusinessException("导出任务过多，请稍后再试", 429);
+        }
+
+        boolean[] accepted = new boolean[1];
+        running.compute(ownerId, (id, count) -> {
+            int current = count != null ? count : 0;
+            accepted[0] = current < maxConcurrentPerUser;
+            return accepted[0] ? current + 1 : count;
+        });
+        if (!accepted[0]) {
+            permits.release();
+            throw new BusinessException("已有导出任务正在进行，请稍后再试", 429);
+        }
+    }
+
+    private void release(Long ownerId) {
+        running.computeIfPresent(ownerId, (id, count) -> count > 1 ? count - 1 : null);
+        permits.release();
+    }
+
+    private long write(Supplier<Cursor<OrderExportRow>> query, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write('\uFEFF');
+        writer.write(HEADER);
+        writer.write("\r\n");
+
+        Long rows;
+        try {
+            rows = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Cursor<OrderExportRow> cursor = query.get()) {
+                    for (OrderExportRow row : cursor) {
+                        writeRow(writer, row);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // 通常是客户端中途断开
+            throw e.getCause();
+        }
+
+        writer.flush();
+        return rows != null ? rows : 0;
+    }
+
+    private void writeRow(Writer writer, OrderExportRow row) throws IOException {
+        writer.write(text(row.getOrderNumber()));
+        writer.write(',');
+        writer.write(row.getCreateTime() != null ? row.getCreateTime().format(TIME_FORMATTER) : "");
+        writer.write(',');
+        writer.write(text(row.getStatus()));
+        writer.write(',');
+        writer.write(text(row.getAfterSaleStatus()));
+        writer.write(',');
+        writer.write(value(row.getTotalAmount()));
+        writer.write(',');
+        writer.write(text(row.getUsername()));
+        writer.write(',');
+        writer.write(text(row.getRecipientName()));
+        writer.write(',');
+        writer.write(text(row.getPhone()));
+        writer.write(',');
+        writer.write(text(row.getAddress()));
+        writer.write(',');
+        writer.write(value(row.getProductId()));
+        writer.write(',');
+        writer.write(text(row.getProductName()));
+        writer.write(',');
+        writer.write(value(row.getProductPrice()));
+        writer.write(',');
+        writer.write(value(row.getQuantity()));
+        writer.write(',');
+        writer.write(value(row.getSubtotal()));
+        writer.write(',');
+        writer.write(value(row.getMerchantId()));
+        writer.write("\r\n");
+    }
+
+    private String value(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * 文本字段按CSV规则转义；以公式字符开头的内容加单引号前缀，防止在Excel中被当作公式执行
+     */
+    private String text(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
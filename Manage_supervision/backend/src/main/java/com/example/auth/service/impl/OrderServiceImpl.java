@@ -3,20 +3,19 @@ package com.example.auth.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.example.auth.common.exception.BusinessException;
+import com.example.auth.common.util.IdGenerator;
+import com.example.auth.common.util.IdCursor;
+import com.example.auth.common.util.TimeIdCursor;
 import com.example.auth.mapper.OrderItemMapper;
 import com.example.auth.mapper.OrderMapper;
-import com.example.auth.mapper.ProductMapper;
-import com.example.auth.mapper.UserMapper;
 import com.example.auth.model.dto.CreateOrderRequest;
+import com.example.auth.model.dto.CursorPageResponse;
 import com.example.auth.model.dto.OrderDTO;
-import com.example.auth.model.dto.OrderItemDTO;
-import com.example.auth.model.dto.PaymentDTO;
 import com.example.auth.model.entity.Order;
 import com.example.auth.model.entity.OrderItem;
 import com.example.auth.model.entity.Product;
-import com.example.auth.model.entity.User;
 import com.example.auth.service.OrderService;
-import com.example.auth.service.PaymentService;
+import com.example.auth.service.StockReservationService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -25,17 +24,19 @@ import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private OrderMapper orderMapper;
 
@@ -43,13 +44,16 @@ public class OrderServiceImpl implements OrderService {
     private OrderItemMapper orderItemMapper;
 
     @Autowired
-    private ProductMapper productMapper;
+    private OrderDTOAssembler orderDTOAssembler;
+
+    @Autowired
+    private StockReservationService stockReservationService;
 
     @Autowired
-    private UserMapper userMapper;
+    private MerchantStatsRecorder merchantStatsRecorder;
 
     @Autowired
-    private PaymentService paymentService;
+    private IdGenerator idGenerator;
 
     @Override
     @Transactional
@@ -85,27 +89,27 @@ public class OrderServiceImpl implements OrderService {
         order.setCreateTime(LocalDateTime.now());
         order.setUpdateTime(LocalDateTime.now());
 
-        // 计算总金额并检查库存
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        List<OrderItem> orderItems = new ArrayList<>();
-
+        // 汇总每个商品的购买数量
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
         for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productMapper.selectById(itemRequest.getProductId());
-            if (product == null) {
-                throw new BusinessException("商品不存在，ID: " + itemRequest.getProductId());
+            if (itemRequest.getProductId() == null) {
+                throw new BusinessException("商品ID不能为空");
             }
-
-            if (!"approved".equals(product.getStatus())) {
-                throw new BusinessException("商品未审核通过，不能购买");
+            if (itemRequest.getQuantity() == null || itemRequest.getQuantity() <= 0) {
+                throw new BusinessException("商品数量必须大于0");
             }
+            quantities.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
 
-            if (product.getStock() < itemRequest.getQuantity()) {
-                throw new BusinessException("商品库存不足，商品：" + product.getName());
-            }
+        // 批量检查并扣减库存
+        Map<Long, Product> products = stockReservationService.reserve(quantities);
+
+        // 计算总金额
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<OrderItem> orderItems = new ArrayList<>();
 
-            // 减少商品库存
-            product.setStock(product.getStock() - itemRequest.getQuantity());
-            productMapper.updateById(product);
+        for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
+            Product product = products.get(itemRequest.getProductId());
 
             // 创建订单商品
             OrderItem orderItem = new OrderItem();
@@ -129,14 +133,16 @@ public class OrderServiceImpl implements OrderService {
             orderItem.setOrderId(order.getId());
             orderItemMapper.insert(orderItem);
         }
+        merchantStatsRecorder.recordCreated(order, orderItems);
 
-        return convertToDTO(order, orderItems);
+        return orderDTOAssembler.assemble(order, orderItems, null);
     }
 
     @Override
     @Transactional
     public boolean cancelOrder(Long orderId, Long userId) {
-        Order order = orderMapper.selectById(orderId);
+        // 锁定订单读取最新状态，避免与超时自动取消重复归还库存
+        Order order = orderMapper.lockById(orderId);
         if (order == null) {
             throw new BusinessException("订单不存在");
         }
@@ -150,18 +156,13 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // 恢复商品库存
-        List<OrderItem> orderItems = orderItemMapper.findByOrderId(orderId);
-        for (OrderItem orderItem : orderItems) {
-            Product product = productMapper.selectById(orderItem.getProductId());
-            if (product != null) {
-                product.setStock(product.getStock() + orderItem.getQuantity());
-                productMapper.updateById(product);
-            }
-        }
+        handleCancelOrder(order);
 
+        String previousStatus = order.getStatus();
         order.setStatus("cancelled");
         order.setUpdateTime(LocalDateTime.now());
         orderMapper.updateById(order);
+        merchantStatsRecorder.recordTransition(order, previousStatus);
 
         return true;
     }
@@ -171,7 +172,7 @@ public class OrderServiceImpl implements OrderService {
         Page<Order> orderPage = new Page<>(page, size);
         orderPage = orderMapper.findByUserId(orderPage, userId);
 
-        return convertToDTO(orderPage);
+        return orderDTOAssembler.assemble(orderPage);
     }
 
     @Override
@@ -179,7 +180,49 @@ public class OrderServiceImpl implements OrderService {
         Page<Order> orderPage = new Page<>(page, size);
         orderPage = orderMapper.findByMerchantId(orderPage, merchantId);
 
-        return convertToDTO(orderPage);
+        return orderDTOAssembler.assemble(orderPage);
+    }
+
+    @Override
+    public CursorPageResponse<OrderDTO> getUserOrdersByCursor(Long userId, String cursor, int size) {
+        int limit = normalizeCursorPageSize(size);
+        TimeIdCursor after = TimeIdCursor.decode(cursor);
+        List<Order> orders = orderMapper.findByUserIdAfterCursor(userId,
+                after != null ? after.getTime() : null, after != null ? after.getId() : null, limit + 1);
+
+        return toCursorPage(orders, limit, last -> new TimeIdCursor(last.getCreateTime(), last.getId()).encode());
+    }
+
+    @Override
+    public CursorPageResponse<OrderDTO> getMerchantOrdersByCursor(Long merchantId, String cursor, int size) {
+        int limit = normalizeCursorPageSize(size);
+        IdCursor after = IdCursor.decode(cursor);
+        List<Order> orders = orderMapper.findByMerchantIdAfterCursor(merchantId,
+                after != null ? after.getId() : null, limit + 1);
+
+        return toCursorPage(orders, limit, last -> new IdCursor(last.getId()).encode());
+    }
+
+    /**
+     * 限制游标分页大小
+     */
+    private int normalizeCursorPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    /**
+     * 多查一条判断是否还有下一页，并以本页最后一条生成游标（游标字段与查询的排序一致）
+     */
+    private CursorPageResponse<OrderDTO> toCursorPage(List<Order> orders, int limit, Function<Order, String> cursorOf) {
+        boolean hasMore = orders.size() > limit;
+        List<Order> pageOrders = hasMore ? orders.subList(0, limit) : orders;
+
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = cursorOf.apply(pageOrders.get(pageOrders.size() - 1));
+        }
+
+        return new CursorPageResponse<>(orderDTOAssembler.assemble(pageOrders), nextCursor, hasMore);
     }
 
     @Override
@@ -189,16 +232,13 @@ public class OrderServiceImpl implements OrderService {
             throw new BusinessException("订单不存在");
         }
 
-        List<OrderItem> orderItems = orderItemMapper.findByOrderId(orderId);
-        List<PaymentDTO> payments = paymentService.getPaymentsByOrderId(orderId);
-
-        return convertToDTO(order, orderItems, payments.size() > 0 ? payments.get(0) : null);
+        return orderDTOAssembler.assemble(List.of(order)).get(0);
     }
 
     @Override
     @Transactional
     public boolean updateOrderStatus(Long orderId, String status, String reason) {
-        Order order = orderMapper.selectById(orderId);
+        Order order = orderMapper.lockById(orderId);
         if (order == null) {
             throw new BusinessException("订单不存在");
         }
@@ -239,6 +279,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // 更新订单状态
+        String previousStatus = order.getStatus();
         order.setStatus(status);
         
         // 如果有原因，记录在备注字段
@@ -252,7 +293,11 @@ public class OrderServiceImpl implements OrderService {
         }
         
         order.setUpdateTime(LocalDateTime.now());
-        return orderMapper.updateById(order) > 0;
+        boolean updated = orderMapper.updateById(order) > 0;
+        if (updated) {
+            merchantStatsRecorder.recordTransition(order, previousStatus);
+        }
+        return updated;
     }
 
     @Override
@@ -285,7 +330,8 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public boolean confirmReceived(Long orderId, Long userId) {
-        Order order = orderMapper.selectById(orderId);
+        // 锁定订单读取最新状态，重复提交时只有一次能通过状态检查
+        Order order = orderMapper.lockById(orderId);
         if (order == null) {
             throw new BusinessException("订单不存在");
         }
@@ -301,6 +347,7 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus("completed");
         order.setUpdateTime(LocalDateTime.now());
         orderMapper.updateById(order);
+        merchantStatsRecorder.recordTransition(order, "shipped");
 
         return true;
     }
@@ -308,7 +355,8 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public boolean ship(Long orderId, Long merchantId) {
-        Order order = orderMapper.selectById(orderId);
+        // 锁定订单读取最新状态，重复提交时只有一次能通过状态检查
+        Order order = orderMapper.lockById(orderId);
         if (order == null) {
             throw new BusinessException("订单不存在");
         }
@@ -326,6 +374,7 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus("shipped");
         order.setUpdateTime(LocalDateTime.now());
         orderMapper.updateById(order);
+        merchantStatsRecorder.recordTransition(order, "paid");
 
         return true;
     }
@@ -334,99 +383,8 @@ public class OrderServiceImpl implements OrderService {
      * 生成订单号
      */
     private String generateOrderNumber() {
-        // 时间戳 + 6位随机数
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-        String timestamp = LocalDateTime.now().format(formatter);
-        String random = UUID.randomUUID().toString().substring(0, 6);
-        return timestamp + random;
-    }
-
-    /**
-     * 转换为DTO
-     */
-    private OrderDTO convertToDTO(Order order, List<OrderItem> orderItems) {
-        return convertToDTO(order, orderItems, null);
-    }
-
-    /**
-     * 转换为DTO（带支付信息）
-     */
-    private OrderDTO convertToDTO(Order order, List<OrderItem> orderItems, PaymentDTO payment) {
-        OrderDTO dto = new OrderDTO();
-        dto.setId(order.getId());
-        dto.setOrderNumber(order.getOrderNumber());
-        dto.setUserId(order.getUserId());
-        
-        // 获取用户名
-        User user = userMapper.selectById(order.getUserId());
-        if (user != null) {
-            dto.setUsername(user.getUsername());
-        }
-        
-        dto.setTotalAmount(order.getTotalAmount());
-        dto.setStatus(order.getStatus());
-        dto.setAfterSaleStatus(order.getAfterSaleStatus());
-        dto.setAfterSaleReason(order.getAfterSaleReason());
-        dto.setCreateTime(order.getCreateTime());
-        dto.setUpdateTime(order.getUpdateTime());
-        dto.setAddress(order.getAddress());
-        dto.setPhone(order.getPhone());
-        dto.setRecipientName(order.getRecipientName());
-        dto.setRemark(order.getRemark());
-        
-        // 设置订单商品
-        if (orderItems != null && !orderItems.isEmpty()) {
-            List<OrderItemDTO> itemDTOs = orderItems.stream().map(this::convertToDTO).collect(Collectors.toList());
-            dto.setItems(itemDTOs);
-        }
-        
-        // 设置支付信息
-        dto.setPayment(payment);
-        
-        return dto;
-    }
-
-    /**
-     * 转换为DTO（商品）
-     */
-    private OrderItemDTO convertToDTO(OrderItem orderItem) {
-        OrderItemDTO dto = new OrderItemDTO();
-        dto.setId(orderItem.getId());
-        dto.setOrderId(orderItem.getOrderId());
-        dto.setProductId(orderItem.getProductId());
-        dto.setProductName(orderItem.getProductName());
-        dto.setProductPrice(orderItem.getProductPrice());
-        dto.setQuantity(orderItem.getQuantity());
-        dto.setSubtotal(orderItem.getSubtotal());
-        dto.setMerchantId(orderItem.getMerchantId());
-        
-        // 获取商家名称
-        User merchant = userMapper.selectById(orderItem.getMerchantId());
-        if (merchant != null) {
-            dto.setMerchantName(merchant.getUsername());
-        }
-        
-        // 获取商品图片
-        Product product = productMapper.selectById(orderItem.getProductId());
-        if (product != null) {
-            dto.setProductImageUrl(product.getImageUrl());
-        }
-        
-        return dto;
-    }
-
-    /**
-     * 分页转换为DTO
-     */
-    private Page<OrderDTO> convertToDTO(Page<Order> orderPage) {
-        Page<OrderDTO> dtoPage = new Page<>(orderPage.getCurrent(), orderPage.getSize(), orderPage.getTotal());
-        List<OrderDTO> records = orderPage.getRecords().stream().map(order -> {
-            List<OrderItem> orderItems = orderItemMapper.findByOrderId(order.getId());
-            List<PaymentDTO> payments = paymentService.getPaymentsByOrderId(order.getId());
-            return convertToDTO(order, orderItems, payments.size() > 0 ? payments.get(0) : null);
-        }).collect(Collectors.toList());
-        dtoPage.setRecords(records);
-        return dtoPage;
+        // 19位数字，按生成时间递增
+        return idGenerator.nextNumber();
     }
 
     /**
@@ -436,14 +394,8 @@ public class OrderServiceImpl implements OrderService {
         // 获取订单的所有商品
         List<OrderItem> orderItems = orderItemMapper.findByOrderId(order.getId());
         
-        // 对每个商品恢复库存
-        for (OrderItem orderItem : orderItems) {
-            Product product = productMapper.selectById(orderItem.getProductId());
-            if (product != null) {
-                product.setStock(product.getStock() + orderItem.getQuantity());
-                productMapper.updateById(product);
-            }
-        }
+        // 批量恢复库存
+        stockReservationService.release(orderItems);
     }
 
     @Override
@@ -475,14 +427,14 @@ public class OrderServiceImpl implements OrderService {
         orderPage = orderMapper.selectPage(orderPage, queryWrapper);
         
         // 转换为DTO
-        return convertToDTO(orderPage);
+        return orderDTOAssembler.assemble(orderPage);
     }
     
     @Override
     @Transactional
     public boolean applyAfterSale(Long orderId, Long userId, String reason) {
-        // 获取订单
-        Order order = orderMapper.selectById(orderId);
+        // 锁定订单读取最新状态，重复提交时只有一次能通过状态检查
+        Order order = orderMapper.lockById(orderId);
         if (order == null) {
             throw new BusinessException("订单不存在");
         }
@@ -498,6 +450,7 @@ public class OrderServiceImpl implements OrderService {
         }
         
         // 设置订单为售后中状态
+        String previousStatus = order.getStatus();
         order.setAfterSaleStatus("pending");  // 售后待处理
         order.setAfterSaleReason(reason);
         order.setStatus("after_sale");  // 更新订单状态为售后中
@@ -505,6 +458,7 @@ public class OrderServiceImpl implements OrderService {
         
         // 更新订单
         orderMapper.updateById(order);
+        merchantStatsRecorder.recordTransition(order, previousStatus);
         
         return true;
     }
@@ -512,8 +466,8 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public boolean processAfterSale(Long orderId, Long merchantId, boolean approved, String reason) {
-        // 获取订单
-        Order order = orderMapper.selectById(orderId);
+        // 锁定订单读取最新状态，重复提交时只有一次能通过状态检查
+        Order order = orderMapper.lockById(orderId);
         if (order == null) {
             throw new BusinessException("订单不存在");
         }
@@ -529,6 +483,7 @@ public class OrderServiceImpl implements OrderService {
             throw new BusinessException("无权操作此订单");
         }
         
+        String previousStatus = order.getStatus();
         if (approved) {
             // 同意退款，更新订单状态
             order.setAfterSaleStatus("approved");
@@ -560,6 +515,7 @@ public class OrderServiceImpl implements OrderService {
         
         // 更新订单
         orderMapper.updateById(order);
+        merchantStatsRecorder.recordTransition(order, previousStatus);
         
         return true;
     }
@@ -567,27 +523,18 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public Page<OrderDTO> getMerchantAfterSaleOrders(Long merchantId, int page, int size) {
         Page<Order> orderPage = new Page<>(page, size);
+        orderPage = orderMapper.findAfterSaleByMerchantId(orderPage, merchantId);
         
-        // 自定义SQL查询，获取该商家的所有售后订单
-        String sql = "SELECT o.* FROM orders o " +
-                "INNER JOIN order_items oi ON o.id = oi.order_id " +
-                "WHERE oi.merchant_id = #{merchantId} " +
-                "AND o.after_sale_status IS NOT NULL " +
-                "GROUP BY o.id " +
-                "ORDER BY o.update_time DESC";
-                
-        // 继续使用现有查询，并通过内存过滤售后订单
-        Page<Order> allOrdersPage = orderMapper.findByMerchantId(orderPage, merchantId);
-        
-        // 过滤出有售后状态的订单
-        List<Order> afterSaleOrders = allOrdersPage.getRecords().stream()
-                .filter(order -> order.getAfterSaleStatus() != null && !order.getAfterSaleStatus().isEmpty())
-                .collect(Collectors.toList());
-        
-        // 创建新的分页对象
-        Page<Order> filteredPage = new Page<>(page, size, afterSaleOrders.size());
-        filteredPage.setRecords(afterSaleOrders);
+        return orderDTOAssembler.assemble(orderPage);
+    }
+    
+    @Override
+    public CursorPageResponse<OrderDTO> getMerchantAfterSaleOrdersByCursor(Long merchantId, String cursor, int size) {
+        int limit = normalizeCursorPageSize(size);
+        IdCursor after = IdCursor.decode(cursor);
+        List<Order> orders = orderMapper.findAfterSaleByMerchantIdAfterCursor(merchantId,
+                after != null ? after.getId() : null, limit + 1);
         
-        return convertToDTO(filteredPage);
+        return toCursorPage(orders, limit, last -> new IdCursor(last.getId()).encode());
     }
-} 
\ No newline at end of file
+}
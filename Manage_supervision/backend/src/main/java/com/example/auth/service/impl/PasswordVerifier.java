@@ -0,0 +1,148 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.common.exception.BusinessException;
+import com.example.auth.util.PasswordUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 密码哈希专用线程池
+ *
+ * BCrypt校验（cost 12约250ms CPU）放到固定大小、队列有界的线程池中执行，
+ * 登录洪峰时队列满直接返回503，不占满Tomcat请求线程。
+ * 同一用户名、同一密码的并发重试合并为一次校验。
+ * 哈希耗时和队列长度通过auth.password.hash和auth.password.hash.queue指标暴露。
+ */
+@Component
+public class PasswordVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerifier.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer hashTimer;
+
+    private final long timeoutMs;
+
+    // 正在校验中的请求：用户名 + 密码摘要 -> 校验结果
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    public PasswordVerifier(MeterRegistry meterRegistry,
+                            @Value("${auth.password-hash.pool-size:0}") int poolSize,
+                            @Value("${auth.password-hash.queue-capacity:64}") int queueCapacity,
+                            @Value("${auth.password-hash.timeout-ms:5000}") long timeoutMs) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("密码哈希耗时")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("等待哈希的任务数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在哈希线程池中校验密码，当前线程等待结果
+     * @param username 用户名，用于合并重复请求
+     * @param rawPassword 原始密码
+     * @param encodedPassword 数据库中的密码
+     * @return 是否匹配
+     * @throws BusinessException 线程池已满或等待超时（code 503）
+     */
+    public boolean matches(String username, String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+
+        String key = username + ":" + digest(rawPassword + ":" + encodedPassword);
+        CompletableFuture<Boolean> created = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(key, created);
+        if (existing == null) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        created.complete(hashTimer.record(() -> PasswordUtils.matches(rawPassword, encodedPassword)));
+                    } catch (Throwable e) {
+                        created.completeExceptionally(e);
+                    } finally {
+                        inFlight.remove(key, created);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key, created);
+                logger.warn("密码校验线程池已满，拒绝用户 {} 的登录请求", username);
+                throw new BusinessException("登录请求过多，请稍后重试", 503);
+            }
+        }
+
+        CompletableFuture<Boolean> future = existing != null ? existing : created;
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("密码校验等待超时，用户: {}", username);
+            throw new BusinessException("登录请求过多，请稍后重试", 503);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("密码校验被中断", 503);
+        } catch (ExecutionException e) {
+            logger.error("密码校验过程中发生异常", e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * 在哈希线程池中异步执行任务（如旧格式密码升级），线程池已满时放弃，下次登录再执行
+     */
+    public void submitQuietly(Runnable task) {
+        try {
+            executor.execute(() -> hashTimer.record(task));
+        } catch (RejectedExecutionException e) {
+            logger.warn("密码哈希线程池已满，跳过后台任务");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static String digest(String value) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+}
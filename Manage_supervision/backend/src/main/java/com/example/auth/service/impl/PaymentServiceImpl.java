@@ -1,6 +1,7 @@
 package com.example.auth.service.impl;
 
 import com.example.auth.common.exception.BusinessException;
+import com.example.auth.common.util.IdGenerator;
 import com.example.auth.mapper.OrderMapper;
 import com.example.auth.mapper.PaymentMapper;
 import com.example.auth.model.dto.PaymentDTO;
@@ -14,9 +15,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +28,12 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private OrderMapper orderMapper;
 
+    @Autowired
+    private MerchantStatsRecorder merchantStatsRecorder;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
     @Override
     @Transactional
     public PaymentDTO createPayment(Long userId, PaymentRequest request) {
@@ -92,6 +98,12 @@ public class PaymentServiceImpl implements PaymentService {
             throw new BusinessException("支付状态不允许完成");
         }
 
+        // 锁定订单后检查状态，避免与超时自动取消并发时把已取消（库存已归还）的订单改为已支付
+        Order order = orderMapper.lockById(payment.getOrderId());
+        if (order != null && !"pending".equals(order.getStatus())) {
+            throw new BusinessException("订单已取消或状态不允许支付");
+        }
+
         // 修改支付状态
         payment.setStatus("completed");
         payment.setUpdateTime(LocalDateTime.now());
@@ -99,11 +111,12 @@ public class PaymentServiceImpl implements PaymentService {
         paymentMapper.updateById(payment);
 
         // 修改订单状态
-        Order order = orderMapper.selectById(payment.getOrderId());
         if (order != null) {
+            String previousStatus = order.getStatus();
             order.setStatus("paid");
             order.setUpdateTime(LocalDateTime.now());
             orderMapper.updateById(order);
+            merchantStatsRecorder.recordTransition(order, previousStatus);
         }
 
         return convertToDTO(payment, order != null ? order.getOrderNumber() : null);
@@ -154,6 +167,10 @@ public class PaymentServiceImpl implements PaymentService {
             throw new BusinessException("支付记录不存在");
         }
 
+        // 先锁订单再锁支付记录（与完成支付的加锁顺序一致），重复退款时只有一次能通过状态检查
+        Order order = orderMapper.lockById(payment.getOrderId());
+        payment = paymentMapper.lockById(payment.getId());
+
         if (!"completed".equals(payment.getStatus())) {
             throw new BusinessException("支付状态不允许退款");
         }
@@ -171,11 +188,12 @@ public class PaymentServiceImpl implements PaymentService {
         paymentMapper.updateById(payment);
 
         // 修改订单状态
-        Order order = orderMapper.selectById(payment.getOrderId());
         if (order != null) {
+            String previousStatus = order.getStatus();
             order.setStatus("refunded");
             order.setUpdateTime(LocalDateTime.now());
             orderMapper.updateById(order);
+            merchantStatsRecorder.recordTransition(order, previousStatus);
         }
 
         return convertToDTO(payment, order != null ? order.getOrderNumber() : null);
@@ -192,6 +210,21 @@ public class PaymentServiceImpl implements PaymentService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<Long, List<PaymentDTO>> getPaymentsByOrders(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, String> orderNumbers = orders.stream()
+                .collect(Collectors.toMap(Order::getId, Order::getOrderNumber, (a, b) -> a));
+        List<Payment> payments = paymentMapper.findByOrderIds(orderNumbers.keySet());
+
+        return payments.stream()
+                .map(payment -> convertToDTO(payment, orderNumbers.get(payment.getOrderId())))
+                .collect(Collectors.groupingBy(PaymentDTO::getOrderId));
+    }
+
     @Override
     public List<PaymentDTO> getPaymentsByUserId(Long userId) {
         List<Payment> payments = paymentMapper.findByUserId(userId);
@@ -222,20 +255,16 @@ public class PaymentServiceImpl implements PaymentService {
      * 生成支付单号
      */
     private String generatePaymentNumber() {
-        // 时间戳 + 6位随机数
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-        String timestamp = LocalDateTime.now().format(formatter);
-        String random = UUID.randomUUID().toString().substring(0, 6);
-        return "PAY" + timestamp + random;
+        // PAY + 19位数字，按生成时间递增
+        return idGenerator.nextNumber("PAY");
     }
 
     /**
      * 生成交易号
      */
     private String generateTransactionId() {
-        // 时间戳 + 10位随机数
-        String random = UUID.randomUUID().toString().replaceAll("-", "").substring(0, 10);
-        return "TXN" + System.currentTimeMillis() + random;
+        // TXN + 19位数字，按生成时间递增
+        return idGenerator.nextNumber("TXN");
     }
 
     /**
@@ -0,0 +1,180 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.mapper.OrderItemMapper;
+import com.example.auth.mapper.OrderMapper;
+import com.example.auth.mapper.SchedulerLeaseMapper;
+import com.example.auth.model.entity.Order;
+import com.example.auth.model.entity.OrderItem;
+import com.example.auth.service.StockReservationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 超时未支付订单自动取消
+ *
+ * 以orders(status, create_time)索引作为延迟队列：定时按下单时间顺序锁定一批超过有效期的待支付订单，
+ * 一条UPDATE批量取消，合并本批所有订单商品后一次多行归还库存，并批量更新商家统计。
+ * 多节点部署时通过scheduler_leases表中的租约保证同一时刻只有一个节点执行；
+ * 锁定时跳过正在被支付或取消的订单（SKIP LOCKED），这些订单留到下一轮处理。
+ * 积压的超时订单数和最早待支付订单的等待时长由持有租约的节点在每轮结束后更新到指标中。
+ */
+@Component
+public class PendingOrderExpirer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingOrderExpirer.class);
+
+    private static final String LEASE_NAME = "pending_order_expiry";
+
+    private static final String CANCEL_REASON = "超时未支付，系统自动取消";
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    @Autowired
+    private SchedulerLeaseMapper schedulerLeaseMapper;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private MerchantStatsRecorder merchantStatsRecorder;
+
+    @Value("${order.expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.expiry.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${order.expiry.batch-size:200}")
+    private int batchSize;
+
+    @Value("${order.expiry.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${order.expiry.lease-seconds:60}")
+    private int leaseSeconds;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // 本进程的租约持有者标识（pid@主机名）
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final Counter cancelledCounter;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+
+    public PendingOrderExpirer(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.cancelledCounter = Counter.builder("order.expiry.cancelled")
+                .description("超时自动取消的订单数")
+                .register(meterRegistry);
+        Gauge.builder("order.expiry.backlog", backlog, AtomicLong::get)
+                .description("已超时但尚未取消的待支付订单数")
+                .register(meterRegistry);
+        Gauge.builder("order.expiry.oldest.pending.age", oldestPendingAgeSeconds, AtomicLong::get)
+                .description("最早的待支付订单已等待的秒数")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 定时取消超时未支付的订单，每轮最多处理max-batches-per-run批，剩余的留到下一轮
+     */
+    @Scheduled(fixedDelayString = "${order.expiry.scan-interval-ms:10000}")
+    public void expire() {
+        if (!enabled) {
+            return;
+        }
+
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            // 每批之前续期租约，丢失租约（如长时间停顿后被其他节点接管）时立即停止
+            if (!tryAcquireLease()) {
+                return;
+            }
+            LocalDateTime deadline = LocalDateTime.now().minusMinutes(ttlMinutes);
+            Integer cancelled = transactionTemplate.execute(status -> expireBatch(deadline));
+            total += cancelled != null ? cancelled : 0;
+            if (cancelled == null || cancelled < batchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            logger.info("超时未支付订单已取消: {} 个", total);
+        }
+        updateBacklogMetrics();
+    }
+
+    /**
+     * 应用关闭时释放租约，其他节点无需等待租约过期
+     */
+    @PreDestroy
+    public void releaseLease() {
+        if (enabled) {
+            try {
+                schedulerLeaseMapper.release(LEASE_NAME, owner);
+            } catch (Exception e) {
+                logger.warn("释放订单超时任务租约失败", e);
+            }
+        }
+    }
+
+    private int expireBatch(LocalDateTime deadline) {
+        List<Order> orders = orderMapper.lockExpiredPending(deadline, batchSize);
+        if (orders.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> orderIds = orders.stream().map(Order::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        orderMapper.cancelPendingByIds(orderIds, CANCEL_REASON, now);
+        orders.forEach(order -> {
+            order.setStatus("cancelled");
+            order.setUpdateTime(now);
+        });
+
+        // 本批所有订单商品合并后一次归还库存
+        List<OrderItem> orderItems = orderItemMapper.findByOrderIds(orderIds);
+        stockReservationService.release(orderItems);
+        merchantStatsRecorder.recordTransitions(orders, "pending", orderItems);
+
+        cancelledCounter.increment(orders.size());
+        return orders.size();
+    }
+
+    private boolean tryAcquireLease() {
+        return schedulerLeaseMapper.tryCreate(LEASE_NAME, owner, leaseSeconds) > 0
+                || schedulerLeaseMapper.tryRenew(LEASE_NAME, owner, leaseSeconds) > 0;
+    }
+
+    private void updateBacklogMetrics() {
+        LocalDateTime now = LocalDateTime.now();
+        backlog.set(orderMapper.countExpiredPending(now.minusMinutes(ttlMinutes)));
+        LocalDateTime oldest = orderMapper.findOldestPendingCreateTime();
+        oldestPendingAgeSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, now).getSeconds()) : 0);
+    }
+}
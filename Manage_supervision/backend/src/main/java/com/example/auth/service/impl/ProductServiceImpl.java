@@ -3,18 +3,23 @@ package com.example.auth.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.auth.common.cache.CategoryTreeIndex;
+import com.example.auth.common.cache.ProductCache;
+import com.example.auth.common.event.ProductChangedEvent;
+import com.example.auth.common.exception.BusinessException;
 import com.example.auth.model.dto.PageResponse;
 import com.example.auth.model.dto.ProductAuditDTO;
 import com.example.auth.model.dto.ProductDTO;
 import com.example.auth.model.entity.Category;
 import com.example.auth.model.entity.Product;
 import com.example.auth.model.entity.User;
-import com.example.auth.mapper.CategoryMapper;
 import com.example.auth.mapper.ProductMapper;
 import com.example.auth.mapper.UserMapper;
+import com.example.auth.service.ProductSearchService;
 import com.example.auth.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -31,8 +36,13 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 public class ProductServiceImpl implements ProductService {
@@ -41,10 +51,22 @@ public class ProductServiceImpl implements ProductService {
     private ProductMapper productMapper;
     
     @Autowired
-    private CategoryMapper categoryMapper;
+    private UserMapper userMapper;
     
     @Autowired
-    private UserMapper userMapper;
+    private HotStockLedger hotStockLedger;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private CategoryTreeIndex categoryTreeIndex;
+    
+    @Autowired
+    private ProductSearchService productSearchService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     @Value("${file.upload.path:/uploads}")
     private String uploadPath;
@@ -68,6 +90,7 @@ public class ProductServiceImpl implements ProductService {
         product.setStatus("pending"); // 初始状态为待审核
         
         productMapper.insert(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(product.getId()));
         
         return convertToProductDTO(product);
     }
@@ -90,19 +113,18 @@ public class ProductServiceImpl implements ProductService {
         product.setUpdateTime(LocalDateTime.now());
         product.setStatus("pending"); // 修改后重新审核
         
-        productMapper.updateById(product);
+        updateWithStock(product, productDTO.getStock());
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
         
         return convertToProductDTO(product);
     }
     
     @Override
     public ProductDTO getProductById(Long id) {
-        Product product = productMapper.selectById(id);
-        if (product == null) {
-            return null;
-        }
-        
-        return convertToProductDTO(product);
+        return productCache.getProduct(id, key -> {
+            Product product = productMapper.selectById(key);
+            return product != null ? convertToProductDTO(product) : null;
+        });
     }
     
     @Override
@@ -123,6 +145,12 @@ public class ProductServiceImpl implements ProductService {
     
     @Override
     public PageResponse<ProductDTO> getAllProducts(int page, int size, String status) {
+        // 已审核商品列表走缓存
+        if ("approved".equals(status)) {
+            return getCachedListing("approved:" + page + ":" + size, page, size,
+                    () -> productMapper.findByStatus(new Page<>(page, size), status));
+        }
+        
         Page<Product> pageParam = new Page<>(page, size);
         Page<Product> productPage;
         
@@ -158,15 +186,8 @@ public class ProductServiceImpl implements ProductService {
         
         // 根据分类ID筛选
         if (categoryId != null) {
-            // 存储所有需要查询的分类ID
-            List<Long> categoryIds = new ArrayList<>();
-            categoryIds.add(categoryId);
-            
-            // 查找当前分类的所有子分类
-            findChildCategories(categoryId, categoryIds);
-            
             // 使用 IN 条件查询指定分类及其子分类下的所有商品
-            queryWrapper.in("category_id", categoryIds);
+            queryWrapper.in("category_id", categoryTreeIndex.getSubtreeIds(categoryId));
         }
         
         // 根据价格范围筛选
@@ -223,13 +244,9 @@ public class ProductServiceImpl implements ProductService {
             }
         }
         
-        // 关键字搜索（商品名称、描述）
+        // 关键字搜索（商品名称、描述），走ngram全文索引
         if (StringUtils.hasText(keyword)) {
-            queryWrapper.and(wrapper -> 
-                wrapper.like("name", keyword)
-                       .or()
-                       .like("description", keyword)
-            );
+            queryWrapper.apply("MATCH(name, description) AGAINST ({0} IN NATURAL LANGUAGE MODE)", keyword.trim());
         }
         
         // 排序
@@ -255,6 +272,20 @@ public class ProductServiceImpl implements ProductService {
         return new PageResponse<>(productDTOs, productPage.getTotal(), page, size);
     }
     
+    /**
+     * 保存商品修改。热点商品的库存由内存账本管理，库存修改换算成变化量写入流水，不直接覆盖products.stock
+     */
+    private void updateWithStock(Product product, Integer stock) {
+        if (stock == null || !hotStockLedger.isHot(product.getId())) {
+            productMapper.updateById(product);
+            return;
+        }
+        product.setStock(null);
+        productMapper.updateById(product);
+        hotStockLedger.adjustTo(product.getId(), stock);
+        product.setStock(stock);
+    }
+    
     // 将前端排序字段名转换为数据库字段名
     private String getDbFieldName(String sortBy) {
         switch (sortBy.toLowerCase()) {
@@ -301,57 +332,95 @@ public class ProductServiceImpl implements ProductService {
         product.setAuditUserId(adminId);
         
         productMapper.updateById(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(product.getId()));
         
         return convertToProductDTO(product);
     }
     
     @Override
     public PageResponse<ProductDTO> getProductsByCategory(Long categoryId, int page, int size) {
-        Page<Product> pageParam = new Page<>(page, size);
-        
-        // 创建查询条件
-        QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("status", "approved"); // 只查询已审核通过的商品
-        
-        // 存储所有需要查询的分类ID
-        List<Long> categoryIds = new ArrayList<>();
-        categoryIds.add(categoryId);
-        
-        // 查找当前分类的所有子分类
-        findChildCategories(categoryId, categoryIds);
+        return getCachedListing("category:" + categoryId + ":" + page + ":" + size, page, size, () -> {
+            Page<Product> pageParam = new Page<>(page, size);
+            
+            // 创建查询条件
+            QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("status", "approved"); // 只查询已审核通过的商品
+            
+            // 使用 IN 条件查询指定分类及其子分类下的所有商品
+            queryWrapper.in("category_id", categoryTreeIndex.getSubtreeIds(categoryId));
+            queryWrapper.orderByDesc("create_time"); // 按创建时间倒序排序
+            
+            return productMapper.selectPage(pageParam, queryWrapper);
+        });
+    }
+    
+    @Override
+    public PageResponse<ProductDTO> searchProducts(String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                                   Integer minStock, int page, int size) {
+        if (!StringUtils.hasText(keyword)) {
+            throw new BusinessException("搜索关键字不能为空");
+        }
         
-        // 使用 IN 条件查询指定分类及其子分类下的所有商品
-        queryWrapper.in("category_id", categoryIds);
-        queryWrapper.orderByDesc("create_time"); // 按创建时间倒序排序
+        Supplier<ProductCache.ListingPage> query = () -> {
+            PageResponse<Long> result = productSearchService.search(keyword, categoryId, minPrice, maxPrice,
+                    minStock, page, size);
+            return new ProductCache.ListingPage(result.getContent(), result.getTotal());
+        };
         
-        Page<Product> productPage = productMapper.selectPage(pageParam, queryWrapper);
+        // 库存变化不会失效列表缓存，按最低库存过滤的结果不缓存
+        if (minStock != null) {
+            return toPageResponse(query.get(), page, size);
+        }
         
-        List<ProductDTO> productDTOs = convertToProductDTOList(productPage.getRecords());
+        String key = "search:" + keyword.trim() + ":" + categoryId + ":" + minPrice + ":" + maxPrice + ":"
+                + page + ":" + size;
+        return toPageResponse(productCache.getListing(key, query), page, size);
+    }
+    
+    /**
+     * 从缓存获取已审核商品列表页：列表缓存商品ID和总数，商品详情从详情缓存批量获取
+     */
+    private PageResponse<ProductDTO> getCachedListing(String key, int page, int size, Supplier<Page<Product>> query) {
+        ProductCache.ListingPage listing = productCache.getListing(key, () -> {
+            Page<Product> productPage = query.get();
+            List<ProductDTO> productDTOs = convertToProductDTOList(productPage.getRecords());
+            productCache.putProducts(productDTOs);
+            
+            List<Long> productIds = new ArrayList<>();
+            for (ProductDTO dto : productDTOs) {
+                productIds.add(dto.getId());
+            }
+            return new ProductCache.ListingPage(productIds, productPage.getTotal());
+        });
         
-        return new PageResponse<>(productDTOs, productPage.getTotal(), page, size);
+        return toPageResponse(listing, page, size);
     }
     
     /**
-     * 递归查找所有子分类ID
+     * 按列表页中的商品ID顺序，从详情缓存批量取出商品
      */
-    private void findChildCategories(Long parentId, List<Long> categoryIds) {
-        List<Category> children = categoryMapper.findByParentId(parentId);
-        if (children != null && !children.isEmpty()) {
-            for (Category child : children) {
-                categoryIds.add(child.getId());
-                findChildCategories(child.getId(), categoryIds);
+    private PageResponse<ProductDTO> toPageResponse(ProductCache.ListingPage listing, int page, int size) {
+        Map<Long, ProductDTO> dtoMap = productCache.getProducts(listing.getProductIds(), this::loadProductDTOs);
+        List<ProductDTO> productDTOs = new ArrayList<>();
+        for (Long productId : listing.getProductIds()) {
+            ProductDTO dto = dtoMap.get(productId);
+            if (dto != null) {
+                productDTOs.add(dto);
             }
         }
+        
+        return new PageResponse<>(productDTOs, listing.getTotal(), page, size);
     }
     
-    @Override
-    public PageResponse<ProductDTO> searchProducts(String keyword, int page, int size) {
-        Page<Product> pageParam = new Page<>(page, size);
-        Page<Product> productPage = productMapper.searchProducts(pageParam, keyword);
-        
-        List<ProductDTO> productDTOs = convertToProductDTOList(productPage.getRecords());
-        
-        return new PageResponse<>(productDTOs, productPage.getTotal(), page, size);
+    /**
+     * 批量加载缓存未命中的商品详情
+     */
+    private Map<Long, ProductDTO> loadProductDTOs(Set<? extends Long> productIds) {
+        Map<Long, ProductDTO> dtoMap = new HashMap<>();
+        for (ProductDTO dto : convertToProductDTOList(productMapper.selectBatchIds(productIds))) {
+            dtoMap.put(dto.getId(), dto);
+        }
+        return dtoMap;
     }
     
     @Override
@@ -364,6 +433,7 @@ public class ProductServiceImpl implements ProductService {
         }
         
         productMapper.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
     }
     
     @Override
@@ -444,7 +514,8 @@ public class ProductServiceImpl implements ProductService {
             product.setMerchantId(productDTO.getMerchantId());
         }
         
-        productMapper.updateById(product);
+        updateWithStock(product, productDTO.getStock());
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
         
         return convertToProductDTO(product);
     }
@@ -460,66 +531,94 @@ public class ProductServiceImpl implements ProductService {
         
         // 管理员删除商品直接执行，无需验证商家ID
         productMapper.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
     }
     
     private ProductDTO convertToProductDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setImageUrl(product.getImageUrl());
-        dto.setPrice(product.getPrice());
-        dto.setStock(product.getStock());
-        dto.setCategoryId(product.getCategoryId());
-        dto.setMerchantId(product.getMerchantId());
-        dto.setStatus(product.getStatus());
-        dto.setAuditComment(product.getAuditComment());
-        
-        // 格式化时间
-        if (product.getCreateTime() != null) {
-            dto.setCreateTime(product.getCreateTime().format(formatter));
-        }
-        
-        if (product.getUpdateTime() != null) {
-            dto.setUpdateTime(product.getUpdateTime().format(formatter));
+        return convertToProductDTOList(List.of(product)).get(0);
+    }
+    
+    /**
+     * 批量转换为DTO：先收集整页的分类、商家和审核人ID，各用一次IN查询解析名称后统一填充
+     */
+    private List<ProductDTO> convertToProductDTOList(List<Product> products) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
         }
         
-        if (product.getAuditTime() != null) {
-            dto.setAuditTime(product.getAuditTime().format(formatter));
+        Set<Long> categoryIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (Product product : products) {
+            if (product.getCategoryId() != null) {
+                categoryIds.add(product.getCategoryId());
+            }
+            if (product.getMerchantId() != null) {
+                userIds.add(product.getMerchantId());
+            }
+            if (product.getAuditUserId() != null) {
+                userIds.add(product.getAuditUserId());
+            }
         }
         
         // 获取分类名称
-        if (product.getCategoryId() != null) {
-            Category category = categoryMapper.selectById(product.getCategoryId());
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (Long categoryId : categoryIds) {
+            Category category = categoryTreeIndex.get(categoryId);
             if (category != null) {
-                dto.setCategoryName(category.getName());
+                categoryNames.put(categoryId, category.getName());
             }
         }
         
-        // 获取商家名称
-        if (product.getMerchantId() != null) {
-            User merchant = userMapper.selectById(product.getMerchantId());
-            if (merchant != null) {
-                dto.setMerchantName(merchant.getUsername());
+        // 获取商家和审核人员名称
+        Map<Long, String> usernames = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            List<User> users = userMapper.selectList(new LambdaQueryWrapper<User>()
+                    .select(User::getId, User::getUsername)
+                    .in(User::getId, userIds));
+            for (User user : users) {
+                usernames.put(user.getId(), user.getUsername());
             }
         }
         
-        // 获取审核人员名称
-        if (product.getAuditUserId() != null) {
-            User admin = userMapper.selectById(product.getAuditUserId());
-            if (admin != null) {
-                dto.setAuditUserName(admin.getUsername());
-            }
-        }
-        
-        return dto;
-    }
-    
-    private List<ProductDTO> convertToProductDTOList(List<Product> products) {
         List<ProductDTO> dtos = new ArrayList<>();
         for (Product product : products) {
-            dtos.add(convertToProductDTO(product));
+            ProductDTO dto = new ProductDTO();
+            dto.setId(product.getId());
+            dto.setName(product.getName());
+            dto.setDescription(product.getDescription());
+            dto.setImageUrl(product.getImageUrl());
+            dto.setPrice(product.getPrice());
+            dto.setStock(product.getStock());
+            dto.setCategoryId(product.getCategoryId());
+            dto.setMerchantId(product.getMerchantId());
+            dto.setStatus(product.getStatus());
+            dto.setAuditComment(product.getAuditComment());
+            
+            // 格式化时间
+            if (product.getCreateTime() != null) {
+                dto.setCreateTime(product.getCreateTime().format(formatter));
+            }
+            
+            if (product.getUpdateTime() != null) {
+                dto.setUpdateTime(product.getUpdateTime().format(formatter));
+            }
+            
+            if (product.getAuditTime() != null) {
+                dto.setAuditTime(product.getAuditTime().format(formatter));
+            }
+            
+            if (product.getCategoryId() != null) {
+                dto.setCategoryName(categoryNames.get(product.getCategoryId()));
+            }
+            if (product.getMerchantId() != null) {
+                dto.setMerchantName(usernames.get(product.getMerchantId()));
+            }
+            if (product.getAuditUserId() != null) {
+                dto.setAuditUserName(usernames.get(product.getAuditUserId()));
+            }
+            
+            dtos.add(dto);
         }
         return dtos;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.common.event.ProductChangedEvent;
+import com.example.auth.common.exception.BusinessException;
+import com.example.auth.mapper.ProductMapper;
+import com.example.auth.model.entity.OrderItem;
+import com.example.auth.model.entity.Product;
+import com.example.auth.service.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private HotStockLedger hotStockLedger;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public Map<Long, Product> reserve(Map<Long, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            return Map.of();
+        }
+
+        // 按商品ID排序，保证多个订单并发扣减时加锁顺序一致
+        Map<Long, Integer> deltas = new TreeMap<>(quantities);
+
+        // 一次IN查询加载所有商品
+        Map<Long, Product> products = productMapper.selectBatchIds(deltas.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Long, Integer> hotDeltas = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                throw new BusinessException("商品不存在，ID: " + entry.getKey());
+            }
+
+            if (!"approved".equals(product.getStatus())) {
+                throw new BusinessException("商品未审核通过，不能购买");
+            }
+
+            // 热点商品以内存账本为准，数据库中的库存可能尚未回写
+            if (hotStockLedger.isHot(entry.getKey())) {
+                hotDeltas.put(entry.getKey(), entry.getValue());
+            } else if (product.getStock() < entry.getValue()) {
+                throw new BusinessException("商品库存不足，商品：" + product.getName());
+            }
+        }
+        deltas.keySet().removeAll(hotDeltas.keySet());
+
+        // 一次多行条件扣减，并发下库存不足的行不会被更新
+        if (!deltas.isEmpty()) {
+            int updated = productMapper.decreaseStockBatch(deltas);
+            if (updated < deltas.size()) {
+                throw new BusinessException("商品库存不足，请稍后重试");
+            }
+        }
+
+        // 热点商品在内存计数器上预留
+        if (!hotDeltas.isEmpty()) {
+            Long shortProductId = hotStockLedger.tryReserve(hotDeltas);
+            if (shortProductId != null) {
+                throw new BusinessException("商品库存不足，商品：" + products.get(shortProductId).getName());
+            }
+        }
+
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(new ArrayList<>(products.keySet())));
+        return products;
+    }
+
+    @Override
+    @Transactional
+    public void release(List<OrderItem> orderItems) {
+        if (orderItems == null || orderItems.isEmpty()) {
+            return;
+        }
+
+        // 同一商品的多条订单商品合并为一次归还
+        Map<Long, Integer> deltas = orderItems.stream()
+                .collect(Collectors.toMap(OrderItem::getProductId, OrderItem::getQuantity, Integer::sum, TreeMap::new));
+
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(new ArrayList<>(deltas.keySet())));
+
+        Map<Long, Integer> hotDeltas = new TreeMap<>();
+        deltas.forEach((productId, quantity) -> {
+            if (hotStockLedger.isHot(productId)) {
+                hotDeltas.put(productId, quantity);
+            }
+        });
+        deltas.keySet().removeAll(hotDeltas.keySet());
+
+        if (!deltas.isEmpty()) {
+            productMapper.increaseStockBatch(deltas);
+        }
+        if (!hotDeltas.isEmpty()) {
+            hotStockLedger.release(hotDeltas);
+        }
+    }
+}
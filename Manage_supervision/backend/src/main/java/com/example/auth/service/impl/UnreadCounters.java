@@ -0,0 +1,230 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.mapper.UserUnreadMapper;
+import com.example.auth.model.entity.UserUnread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户未读计数
+ *
+ * 每个用户的未读消息总数和未读会话数持久化在user_unread表，与消息写入、标记已读在同一事务中累加，
+ * 内存中按用户ID分片缓存最近使用的计数，查询未读数无需扫描消息表和会话表。
+ * 事务提交后把变化量应用到内存并通过/queue/notifications推送给用户；
+ * 有未完成更新的用户不从数据库加载缓存，避免同一变化量被计算两次。
+ * 内存计数只包含本节点的变化量，缓存超过chat.unread.ttl-ms后重新从数据库加载，
+ * 多节点部署时其他节点的修改最多延迟一个TTL可见。
+ */
+@Component
+public class UnreadCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounters.class);
+
+    private final UserUnreadMapper userUnreadMapper;
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Shard[] shards;
+
+    private final long ttlNanos;
+
+    private final boolean backfillOnStartup;
+
+    public UnreadCounters(UserUnreadMapper userUnreadMapper,
+                          SimpMessagingTemplate messagingTemplate,
+                          @Value("${chat.unread.shards:64}") int shardCount,
+                          @Value("${chat.unread.max-size:100000}") int maxSize,
+                          @Value("${chat.unread.ttl-ms:30000}") long ttlMs,
+                          @Value("${chat.unread.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.userUnreadMapper = userUnreadMapper;
+        this.messagingTemplate = messagingTemplate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.backfillOnStartup = backfillOnStartup;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(Math.max(1, maxSize / shardCount));
+        }
+    }
+
+    /**
+     * 获取用户的未读计数，内存未命中或已过期时按主键查询一次
+     */
+    public UserUnread get(Long userId) {
+        Shard shard = shardOf(userId);
+        synchronized (shard) {
+            Counts counts = shard.counts.get(userId);
+            if (counts == null || counts.isExpired()) {
+                counts = load(userId);
+                // 变化量尚未应用到内存时只返回数据库中的值，不缓存
+                if (shard.inFlight.containsKey(userId)) {
+                    shard.counts.remove(userId);
+                    return toUnread(userId, counts);
+                }
+                shard.counts.put(userId, counts);
+            }
+            return toUnread(userId, counts);
+        }
+    }
+
+    /**
+     * 在当前事务中累加用户的未读计数，事务提交后更新内存并推送
+     * @param deltas 用户ID -> 变化量
+     */
+    public void apply(Map<Long, UserUnread> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<Long, UserUnread> sorted = new TreeMap<>(deltas);
+        sorted.keySet().forEach(userId -> {
+            Shard shard = shardOf(userId);
+            synchronized (shard) {
+                shard.inFlight.merge(userId, 1, Integer::sum);
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(sorted, status == STATUS_COMMITTED);
+                }
+            });
+            persist(sorted.values());
+        } else {
+            boolean applied = false;
+            try {
+                persist(sorted.values());
+                applied = true;
+            } finally {
+                complete(sorted, applied);
+            }
+        }
+    }
+
+    /**
+     * 未读计数表为空时（首次部署）从会话表的未读数重建，之前的未读消息也能计入
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup && !userUnreadMapper.hasAny()) {
+            int users = userUnreadMapper.rebuildFromConversations();
+            for (Shard shard : shards) {
+                synchronized (shard) {
+                    shard.counts.clear();
+                }
+            }
+            if (users > 0) {
+                logger.info("已从会话表重建用户未读计数: {} 个用户", users);
+            }
+        }
+    }
+
+    private void persist(Collection<UserUnread> deltas) {
+        userUnreadMapper.ensureRows(deltas);
+        userUnreadMapper.applyDeltas(deltas);
+    }
+
+    private void complete(Map<Long, UserUnread> deltas, boolean committed) {
+        Map<Long, UserUnread> changed = new HashMap<>();
+        deltas.forEach((userId, delta) -> {
+            Shard shard = shardOf(userId);
+            synchronized (shard) {
+                shard.inFlight.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+                Counts counts = shard.counts.get(userId);
+                if (committed && counts != null) {
+                    counts.messages = Math.max(0, counts.messages + delta.getUnreadMessages());
+                    counts.conversations = Math.max(0, counts.conversations + delta.getUnreadConversations());
+                    changed.put(userId, toUnread(userId, counts));
+                }
+            }
+        });
+
+        // 只推送内存中有计数的用户，在线用户通常已读取过未读数
+        changed.forEach(this::push);
+    }
+
+    private void push(Long userId, UserUnread unread) {
+        try {
+            Map<String, Object> notification = new HashMap<>();
+            notification.put("type", "UNREAD_COUNT");
+            notification.put("unreadMessages", unread.getUnreadMessages());
+            notification.put("unreadConversations", unread.getUnreadConversations());
+
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/notifications", notification);
+        } catch (Exception e) {
+            logger.warn("推送未读计数失败, userId={}", userId, e);
+        }
+    }
+
+    private Counts load(Long userId) {
+        UserUnread unread = userUnreadMapper.findByUserId(userId);
+        long expiresAt = System.nanoTime() + ttlNanos;
+        return unread != null
+                ? new Counts(unread.getUnreadMessages(), unread.getUnreadConversations(), expiresAt)
+                : new Counts(0, 0, expiresAt);
+    }
+
+    private UserUnread toUnread(Long userId, Counts counts) {
+        return new UserUnread(userId, counts.messages, counts.conversations);
+    }
+
+    private Shard shardOf(Long userId) {
+        return shards[(int) Math.floorMod(userId, (long) shards.length)];
+    }
+
+    /**
+     * 缓存的未读消息数和未读会话数，在所属分片上同步修改
+     */
+    private static class Counts {
+
+        private int messages;
+
+        private int conversations;
+
+        private final long expiresAt;
+
+        Counts(int messages, int conversations, long expiresAt) {
+            this.messages = messages;
+            this.conversations = conversations;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+
+    /**
+     * 一个分片：按访问顺序淘汰的计数缓存，以及尚未完成的更新数
+     */
+    private static class Shard {
+
+        private final Map<Long, Counts> counts;
+
+        private final Map<Long, Integer> inFlight = new HashMap<>();
+
+        Shard(int maxSize) {
+            this.counts = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Counts> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+    }
+}
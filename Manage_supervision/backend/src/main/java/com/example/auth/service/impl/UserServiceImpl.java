@@ -1,5 +1,7 @@
 package com.example.auth.service.impl;
 
+import com.example.auth.common.cache.TokenVersionRegistry;
+import com.example.auth.common.event.UserChangedEvent;
 import com.example.auth.model.dto.UserDTO;
 import com.example.auth.model.dto.UserDetailDTO;
 import com.example.auth.model.entity.Role;
@@ -12,6 +14,7 @@ import com.example.auth.service.MerchantUserService;
 import com.example.auth.util.PasswordUtils;
 import com.example.auth.util.UserNumberGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
@@ -45,6 +48,15 @@ public class UserServiceImpl implements UserService {
     
     @Autowired
     private MerchantUserService merchantUserService;
+    
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+    
+    @Autowired
+    private PasswordVerifier passwordVerifier;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -126,22 +138,14 @@ public class UserServiceImpl implements UserService {
             return false;
         }
         
-        // 使用自定义工具类验证密码
-        boolean matches = PasswordUtils.matches(password, user.getPassword());
+        // 在密码哈希线程池中验证，线程池已满时抛出BusinessException(503)
+        boolean matches = passwordVerifier.matches(user.getUsername(), password, user.getPassword());
         
         if (matches) {
-            // 检查密码是否需要升级到新格式
+            // 检查密码是否需要升级到新格式，升级在后台执行，不阻塞登录响应
             if (PasswordUtils.needsUpgrade(user.getPassword())) {
-                logger.info("用户 {} 的密码使用旧格式，自动升级到新格式", user.getUsername());
-                try {
-                    // 使用BCrypt重新加密并保存
-                    user.setPassword(PasswordUtils.encryptPassword(password));
-                    userMapper.updateById(user);
-                    logger.info("用户 {} 的密码已升级到新格式", user.getUsername());
-                } catch (Exception e) {
-                    // 升级失败仅记录日志，不影响登录结果
-                    logger.error("密码格式升级失败", e);
-                }
+                logger.info("用户 {} 的密码使用旧格式，后台升级到新格式", user.getUsername());
+                upgradePasswordAsync(user.getId(), user.getUsername(), user.getPassword(), password);
             }
             return true;
         } else {
@@ -150,6 +154,25 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /**
+     * 后台把旧格式密码升级为BCrypt，仅当密码未被修改时才覆盖
+     */
+    private void upgradePasswordAsync(Long userId, String username, String legacyPassword, String rawPassword) {
+        passwordVerifier.submitQuietly(() -> {
+            try {
+                // 使用BCrypt重新加密并保存
+                int updated = userMapper.upgradePassword(userId, legacyPassword, PasswordUtils.encryptPassword(rawPassword));
+                if (updated > 0) {
+                    eventPublisher.publishEvent(UserChangedEvent.of(userId));
+                    logger.info("用户 {} 的密码已升级到新格式", username);
+                }
+            } catch (Exception e) {
+                // 升级失败仅记录日志，下次登录时重试
+                logger.error("密码格式升级失败", e);
+            }
+        });
+    }
+
     @Override
     @Transactional
     public void changePassword(User user, String currentPassword, String newPassword) {
@@ -174,6 +197,8 @@ public class UserServiceImpl implements UserService {
             // 使用自定义工具类加密新密码
             user.setPassword(PasswordUtils.encryptPassword(newPassword));
             userMapper.updateById(user);
+            tokenVersionRegistry.revoke(user.getId());
+            eventPublisher.publishEvent(UserChangedEvent.of(user.getId()));
             logger.info("用户 {} 密码更改成功", user.getUsername());
         } catch (Exception e) {
             logger.error("密码更改过程中发生异常", e);
@@ -191,6 +216,7 @@ public class UserServiceImpl implements UserService {
         try {
             user.setAvatar(avatarUrl);
             userMapper.updateById(user);
+            eventPublisher.publishEvent(UserChangedEvent.of(user.getId()));
             logger.info("用户 {} 头像更新成功", user.getUsername());
         } catch (Exception e) {
             logger.error("头像更新过程中发生异常", e);
@@ -257,6 +283,7 @@ public class UserServiceImpl implements UserService {
             
             // 保存更新
             userMapper.updateById(user);
+            eventPublisher.publishEvent(UserChangedEvent.of(user.getId()));
             logger.info("用户 {} 个人信息更新成功", user.getUsername());
             return user;
         } catch (Exception e) {
@@ -442,6 +469,8 @@ public class UserServiceImpl implements UserService {
             // 更新状态
             user.setStatus(status);
             userMapper.updateById(user);
+            tokenVersionRegistry.revoke(id);
+            eventPublisher.publishEvent(UserChangedEvent.of(id));
             logger.info("用户 {} 状态更新为 {}", user.getUsername(), status);
             return true;
         } catch (Exception e) {
@@ -476,8 +505,10 @@ public class UserServiceImpl implements UserService {
             // 删除用户角色关联
             userRoleMapper.deleteUserRoles(id);
             
-            // 删除用户
+            // 删除用户，并吊销其未过期的Token
             userMapper.deleteById(id);
+            tokenVersionRegistry.revokeDeleted(id);
+            eventPublisher.publishEvent(UserChangedEvent.of(id));
             logger.info("用户 {} 已删除", user.getUsername());
             return true;
         } catch (Exception e) {
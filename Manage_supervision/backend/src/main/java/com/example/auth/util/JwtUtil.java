@@ -1,14 +1,25 @@
 package com.example.auth.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -17,14 +28,38 @@ import java.util.Map;
 @Component
 public class JwtUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.ttl-seconds:300}")
+    private long verifiedCacheTtlSeconds;
+
+    // 签名密钥和解析器只构建一次，JwtParser不可变，可在多线程间共享
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    // 最近验证通过的Token，按Token摘要缓存，避免同一Token反复验签
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(verifiedCacheTtlSeconds))
+                .build();
     }
 
     public String generateToken(String username) {
@@ -37,7 +72,7 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiryDate))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -55,17 +90,26 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiryDate))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
     public String generateToken(String username, Long userId, List<String> roles) {
+        return generateToken(username, userId, roles, 0);
+    }
+
+    /**
+     * 生成携带角色和令牌版本的Token，用于无状态授权
+     * @param tokenVersion 签发时用户的令牌版本，版本递增后此Token失效
+     */
+    public String generateToken(String username, Long userId, List<String> roles, int tokenVersion) {
         if (userId == null) {
             throw new IllegalArgumentException("用户ID不能为空");
         }
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("roles", roles);
+        claims.put("ver", tokenVersion);
         Instant now = Instant.now();
         Instant expiryDate = now.plusMillis(expiration);
 
@@ -74,59 +118,59 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiryDate))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public Boolean validateToken(String token) {
+    /**
+     * 验证Token签名和有效期，并一次性解析出用户名、用户ID和角色
+     * @param token JWT令牌（不含Bearer前缀）
+     * @return 验证结果，Token无效或已过期时返回null
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (!cached.isExpired(Instant.now())) {
+                return cached;
+            }
+            verifiedTokens.invalidate(digest);
+            return null;
+        }
+
+        VerifiedToken verified;
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
-            return true;
+            verified = toVerifiedToken(parser.parseSignedClaims(token).getPayload());
         } catch (Exception e) {
-            return false;
+            return null;
         }
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    public Boolean validateToken(String token) {
+        return verify(token) != null;
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
-        return claims.getSubject();
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getSubject() : null;
     }
 
     public Long getUserIdFromToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-            
-            if (claims.containsKey("userId")) {
-                Object userIdObj = claims.get("userId");
-                if (userIdObj instanceof Number) {
-                    return ((Number) userIdObj).longValue();
-                } else if (userIdObj instanceof String) {
-                    try {
-                        return Long.parseLong((String) userIdObj);
-                    } catch (NumberFormatException e) {
-                        System.err.println("Token中的userId无法转换为Long: " + userIdObj);
-                        return null;
-                    }
-                }
-            }
-            
-            System.err.println("Token中未找到userId字段");
-            return null;
-        } catch (Exception e) {
-            System.err.println("解析Token中的userId时发生错误: " + e.getMessage());
+        VerifiedToken verified = verify(token);
+        if (verified == null) {
+            logger.debug("解析Token中的userId时发生错误: Token无效");
             return null;
         }
+        if (verified.getUserId() == null) {
+            logger.warn("Token中未找到userId字段");
+        }
+        return verified.getUserId();
     }
     
     /**
@@ -135,32 +179,50 @@ public class JwtUtil {
      * @param roleName 角色名称
      * @return 是否包含指定角色
      */
-    @SuppressWarnings("unchecked")
     public boolean hasRole(String token, String roleName) {
-        try {
-            Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-            
-            // 检查token中是否包含roles字段
-            if (claims.containsKey("roles")) {
-                Object rolesObj = claims.get("roles");
-                
-                // 如果roles是列表，直接检查
-                if (rolesObj instanceof List) {
-                    List<String> roles = (List<String>) rolesObj;
-                    return roles.contains(roleName);
-                }
+        VerifiedToken verified = verify(token);
+        return verified != null && verified.hasRole(roleName);
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        Long userId = null;
+        Object userIdObj = claims.get("userId");
+        if (userIdObj instanceof Number) {
+            userId = ((Number) userIdObj).longValue();
+        } else if (userIdObj instanceof String) {
+            try {
+                userId = Long.parseLong((String) userIdObj);
+            } catch (NumberFormatException e) {
+                logger.warn("Token中的userId无法转换为Long: {}", userIdObj);
             }
-            
-            // 如果没有角色信息，我们可以做一些特殊处理
-            // 例如查询数据库获取用户角色，但这里为简单起见，我们返回false
-            return false;
-        } catch (Exception e) {
-            System.err.println("解析Token中的角色信息时发生错误: " + e.getMessage());
-            return false;
+        }
+
+        List<String> roles = new ArrayList<>();
+        Object rolesObj = claims.get("roles");
+        if (rolesObj instanceof List) {
+            for (Object role : (List<?>) rolesObj) {
+                roles.add(String.valueOf(role));
+            }
+        }
+
+        Object versionObj = claims.get("ver");
+        int tokenVersion = versionObj instanceof Number ? ((Number) versionObj).intValue() : 0;
+
+        Date expiresAt = claims.getExpiration();
+        return new VerifiedToken(claims.getSubject(), userId, List.copyOf(roles), tokenVersion,
+                expiresAt != null ? expiresAt.toInstant() : null);
+    }
+
+    /**
+     * 缓存键使用Token的SHA-256摘要，不在内存中保留原始Token
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
         }
     }
-} 
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.example.auth.util;
 
+import com.example.auth.common.cache.UserPrincipalCache;
 import com.example.auth.model.entity.User;
 import com.example.auth.service.UserService;
 import org.springframework.stereotype.Component;
@@ -10,16 +11,24 @@ import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * 用户上下文工具类，用于在请求过程中获取当前用户信息
+ * 当前用户每个请求只解析一次并保存在请求属性中，用户和角色从UserPrincipalCache获取
  */
 @Component
 public class UserContext {
 
+    /**
+     * 保存当前用户的请求属性名
+     */
+    public static final String CURRENT_USER_ATTRIBUTE = UserContext.class.getName() + ".currentUser";
+
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final UserPrincipalCache principalCache;
 
-    public UserContext(UserService userService, JwtUtil jwtUtil) {
+    public UserContext(UserService userService, JwtUtil jwtUtil, UserPrincipalCache principalCache) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -30,16 +39,7 @@ public class UserContext {
         try {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                String authHeader = request.getHeader("Authorization");
-                
-                if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    String token = authHeader.substring(7);
-                    if (jwtUtil.validateToken(token)) {
-                        String username = jwtUtil.getUsernameFromToken(token);
-                        return userService.findByUsername(username);
-                    }
-                }
+                return resolve(attributes.getRequest());
             }
         } catch (Exception e) {
             // 记录错误但不抛出，返回null表示未获取到用户
@@ -47,6 +47,37 @@ public class UserContext {
         }
         return null;
     }
+
+    /**
+     * 解析请求的当前用户，同一请求内只解析一次
+     * @param request 当前请求
+     * @return 当前用户对象，Token无效或用户不存在时返回null
+     */
+    public User resolve(HttpServletRequest request) {
+        Object resolved = request.getAttribute(CURRENT_USER_ATTRIBUTE);
+        if (resolved instanceof User) {
+            return (User) resolved;
+        }
+
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+
+        // 只验签一次，用户名和用户ID都从验证结果中读取
+        VerifiedToken token = jwtUtil.verify(authHeader.substring(7));
+        if (token == null) {
+            return null;
+        }
+
+        User user = token.getUserId() != null
+                ? principalCache.get(token.getUserId(), userService::findById)
+                : userService.findByUsername(token.getSubject());
+        if (user != null) {
+            request.setAttribute(CURRENT_USER_ATTRIBUTE, user);
+        }
+        return user;
+    }
     
     /**
      * 获取当前用户ID
@@ -57,13 +88,20 @@ public class UserContext {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
                 HttpServletRequest request = attributes.getRequest();
+
+                // 已解析过当前用户时直接使用
+                Object resolved = request.getAttribute(CURRENT_USER_ATTRIBUTE);
+                if (resolved instanceof User) {
+                    return ((User) resolved).getId();
+                }
+
                 String authHeader = request.getHeader("Authorization");
                 
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    String token = authHeader.substring(7);
                     JwtUtil jwtUtil = SpringContextHolder.getBean(JwtUtil.class);
-                    if (jwtUtil.validateToken(token)) {
-                        return jwtUtil.getUserIdFromToken(token);
+                    VerifiedToken token = jwtUtil.verify(authHeader.substring(7));
+                    if (token != null) {
+                        return token.getUserId();
                     }
                 }
             }
@@ -73,4 +111,4 @@ public class UserContext {
         }
         return null;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.example.auth.util;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 已验证签名的JWT内容
+ * 由JwtUtil.verify解析一次后得到，后续读取用户名、用户ID和角色不再重复验签
+ */
+public class VerifiedToken {
+
+    private final String subject;
+
+    private final Long userId;
+
+    private final List<String> roles;
+
+    private final int tokenVersion;
+
+    private final Instant expiration;
+
+    public VerifiedToken(String subject, Long userId, List<String> roles, int tokenVersion, Instant expiration) {
+        this.subject = subject;
+        this.userId = userId;
+        this.roles = roles;
+        this.tokenVersion = tokenVersion;
+        this.expiration = expiration;
+    }
+
+    /**
+     * 用户名
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * 用户ID，旧Token中可能不存在
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Token中携带的角色，未携带时为空列表
+     */
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * 签发时用户的令牌版本，旧Token中不存在时为0
+     */
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public Instant getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * 判断Token是否已过期
+     */
+    public boolean isExpired(Instant now) {
+        return expiration != null && !expiration.isAfter(now);
+    }
+
+    /**
+     * 判断Token中是否包含指定角色
+     */
+    public boolean hasRole(String roleName) {
+        return roles.contains(roleName);
+    }
+}
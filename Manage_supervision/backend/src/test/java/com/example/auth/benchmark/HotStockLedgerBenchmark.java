@@ -0,0 +1,70 @@
+package com.example.auth.benchmark;
+
+import com.example.auth.mapper.StockLedgerJournalMapper;
+import com.example.auth.service.impl.HotStockLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 热点库存账本的预留吞吐：多线程争抢同一商品（products=1）与分散到多个商品时的对比
+ * 流水写入为空实现，只测内存计数器上的CAS争用
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class HotStockLedgerBenchmark {
+
+    @Param({"1", "64"})
+    private int products;
+
+    private HotStockLedger ledger;
+
+    private final AtomicInteger threadIndex = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ledger = new HotStockLedger();
+        ReflectionTestUtils.setField(ledger, "journalMapper", Stubs.mapper(StockLedgerJournalMapper.class,
+                Map.of("findAvailableStock", Integer.MAX_VALUE)));
+    }
+
+    /**
+     * 每个线程固定购买其中一个商品
+     */
+    @State(Scope.Thread)
+    public static class Purchase {
+
+        private Map<Long, Integer> quantities;
+
+        @Setup
+        public void setUp(HotStockLedgerBenchmark benchmark) {
+            long productId = benchmark.threadIndex.getAndIncrement() % benchmark.products + 1;
+            quantities = Map.of(productId, 1);
+        }
+    }
+
+    @Benchmark
+    public Long tryReserve(Purchase purchase) {
+        return ledger.tryReserve(purchase.quantities);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.auth.benchmark;
+
+import com.example.auth.common.util.IdGenerator;
+import com.example.auth.mapper.IdSequenceMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 雪花ID生成吞吐，高水位登记为空实现
+ * 单节点每毫秒最多4096个ID，多线程时的上限由序号位数决定，超出后借用后续毫秒
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private IdGenerator idGenerator;
+
+    @Setup
+    public void setUp() {
+        idGenerator = new IdGenerator(Stubs.mapper(IdSequenceMapper.class, Map.of("raiseTo", 1)),
+                Stubs.transactionManager(), "1", 5000, 1000);
+        idGenerator.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        idGenerator.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextIdSingleThread() {
+        return idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextIdContended() {
+        return idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextNumberContended() {
+        return idGenerator.nextNumber("ORD");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.auth.benchmark;
+
+import com.example.auth.util.JwtUtil;
+import com.example.auth.util.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token验证耗时：命中已验证缓存时与每次验签（缓存容量为0）的对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "benchmark_jwt_secret_key_at_least_32_bytes";
+
+    private JwtUtil cached;
+
+    private JwtUtil uncached;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = jwtUtil(10000);
+        uncached = jwtUtil(0);
+        token = cached.generateToken("benchmark", 1L, List.of("USER"), 0);
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cachedVerify() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken signatureVerify() {
+        return uncached.verify(token);
+    }
+
+    private static JwtUtil jwtUtil(long cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", cacheSize);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheTtlSeconds", 300L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.auth.benchmark;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * 基准测试用的空实现：不访问数据库，避免数据库耗时掩盖被测代码本身的开销
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * 生成Mapper接口的空实现，按方法名返回给定值，未指定的方法返回null（基本类型返回0）
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T mapper(Class<T> type, Map<String, Object> results) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(results, args);
+            }
+            Object result = results.get(method.getName());
+            if (result == null && method.getReturnType() == int.class) {
+                return 0;
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 不做任何事的事务管理器
+     */
+    static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.auth.service.impl;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.auth.mapper.OrderItemMapper;
+import com.example.auth.mapper.OrderMapper;
+import com.example.auth.mapper.PaymentMapper;
+import com.example.auth.mapper.ProductMapper;
+import com.example.auth.mapper.UserMapper;
+import com.example.auth.model.dto.OrderDTO;
+import com.example.auth.model.entity.Order;
+import com.example.auth.model.entity.OrderItem;
+import com.example.auth.model.entity.Payment;
+import com.example.auth.model.entity.Product;
+import com.example.auth.model.entity.User;
+import com.example.auth.support.QueryCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * 订单分页组装的查询次数：分页查询1条，订单商品、支付、用户名、商品图片各1条，与页大小无关
+ */
+class OrderQueryCountTest {
+
+    private static final Long USER_ID = 1L;
+
+    // 分页查询 + 订单商品 + 支付 + 用户名 + 商品图片
+    private static final int EXPECTED_QUERIES = 5;
+
+    private OrderMapper orderMapper;
+    private OrderItemMapper orderItemMapper;
+    private PaymentMapper paymentMapper;
+    private ProductMapper productMapper;
+    private UserMapper userMapper;
+
+    private OrderServiceImpl orderService;
+
+    @BeforeAll
+    static void registerEntities() {
+        QueryCounter.registerEntities(User.class, Product.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        orderMapper = Mockito.mock(OrderMapper.class);
+        orderItemMapper = Mockito.mock(OrderItemMapper.class);
+        paymentMapper = Mockito.mock(PaymentMapper.class);
+        productMapper = Mockito.mock(ProductMapper.class);
+        userMapper = Mockito.mock(UserMapper.class);
+
+        PaymentServiceImpl paymentService = new PaymentServiceImpl();
+        ReflectionTestUtils.setField(paymentService, "paymentMapper", paymentMapper);
+        ReflectionTestUtils.setField(paymentService, "orderMapper", orderMapper);
+
+        OrderDTOAssembler assembler = new OrderDTOAssembler();
+        ReflectionTestUtils.setField(assembler, "orderItemMapper", orderItemMapper);
+        ReflectionTestUtils.setField(assembler, "productMapper", productMapper);
+        ReflectionTestUtils.setField(assembler, "userMapper", userMapper);
+        ReflectionTestUtils.setField(assembler, "paymentService", paymentService);
+
+        orderService = new OrderServiceImpl();
+        ReflectionTestUtils.setField(orderService, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(orderService, "orderItemMapper", orderItemMapper);
+        ReflectionTestUtils.setField(orderService, "orderDTOAssembler", assembler);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void userOrderPageUsesFixedNumberOfQueries(int pageSize) {
+        List<Order> orders = new ArrayList<>();
+        List<OrderItem> items = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        for (long i = 1; i <= pageSize; i++) {
+            orders.add(order(i));
+            // 每个订单两件商品，商品和商家各不相同
+            items.add(item(i * 2, i, i * 2));
+            items.add(item(i * 2 + 1, i, i * 2 + 1));
+            payments.add(payment(i));
+        }
+        Page<Order> page = new Page<>(1, pageSize, pageSize);
+        page.setRecords(orders);
+
+        when(orderMapper.findByUserId(any(Page.class), eq(USER_ID))).thenReturn(page);
+        when(orderItemMapper.findByOrderIds(anyCollection())).thenReturn(items);
+        when(paymentMapper.findByOrderIds(anyCollection())).thenReturn(payments);
+        when(userMapper.selectList(any())).thenReturn(List.of(user(USER_ID)));
+        when(productMapper.selectList(any())).thenReturn(List.of());
+
+        Page<OrderDTO> result = orderService.getUserOrders(USER_ID, 1, pageSize);
+
+        assertEquals(pageSize, result.getRecords().size());
+        OrderDTO first = result.getRecords().get(0);
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getPayment());
+        assertEquals(EXPECTED_QUERIES,
+                QueryCounter.count(orderMapper, orderItemMapper, paymentMapper, productMapper, userMapper));
+    }
+
+    private static Order order(long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNumber("ORD" + id);
+        order.setUserId(USER_ID);
+        return order;
+    }
+
+    private static OrderItem item(long id, long orderId, long productId) {
+        OrderItem item = new OrderItem();
+        item.setId(id);
+        item.setOrderId(orderId);
+        item.setProductId(productId);
+        item.setMerchantId(1000 + productId);
+        return item;
+    }
+
+    private static Payment payment(long orderId) {
+        Payment payment = new Payment();
+        payment.setId(orderId);
+        payment.setOrderId(orderId);
+        return payment;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        return user;
+    }
+}
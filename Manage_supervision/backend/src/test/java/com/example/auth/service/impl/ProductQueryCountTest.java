@@ -0,0 +1,108 @@
+package com.example.auth.service.impl;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.auth.common.cache.CategoryTreeIndex;
+import com.example.auth.mapper.ProductMapper;
+import com.example.auth.mapper.UserMapper;
+import com.example.auth.model.dto.PageResponse;
+import com.example.auth.model.dto.ProductDTO;
+import com.example.auth.model.entity.Category;
+import com.example.auth.model.entity.Product;
+import com.example.auth.model.entity.User;
+import com.example.auth.support.QueryCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品筛选分页的查询次数：分页查询1条，商家和审核人名称1条，分类名称走内存索引，与页大小无关
+ */
+class ProductQueryCountTest {
+
+    // 分页查询 + 商家/审核人用户名
+    private static final int EXPECTED_QUERIES = 2;
+
+    private ProductMapper productMapper;
+    private UserMapper userMapper;
+
+    private ProductServiceImpl productService;
+
+    @BeforeAll
+    static void registerEntities() {
+        QueryCounter.registerEntities(User.class, Product.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        productMapper = Mockito.mock(ProductMapper.class);
+        userMapper = Mockito.mock(UserMapper.class);
+        CategoryTreeIndex categoryTreeIndex = Mockito.mock(CategoryTreeIndex.class);
+        when(categoryTreeIndex.get(anyLong())).thenAnswer(invocation -> {
+            Category category = new Category();
+            category.setId(invocation.getArgument(0));
+            category.setName("category" + invocation.getArgument(0));
+            return category;
+        });
+
+        productService = new ProductServiceImpl();
+        ReflectionTestUtils.setField(productService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(productService, "userMapper", userMapper);
+        ReflectionTestUtils.setField(productService, "categoryTreeIndex", categoryTreeIndex);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 200})
+    void filteredProductPageUsesFixedNumberOfQueries(int pageSize) {
+        List<Product> products = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= pageSize; i++) {
+            // 分类、商家和审核人各不相同
+            products.add(product(i, 100 + i, 1000 + i, 5000 + i));
+            users.add(user(1000 + i));
+            users.add(user(5000 + i));
+        }
+        Page<Product> page = new Page<>(1, pageSize, pageSize);
+        page.setRecords(products);
+
+        when(productMapper.selectPage(any(), any())).thenReturn(page);
+        when(userMapper.selectList(any())).thenReturn(users);
+
+        PageResponse<ProductDTO> result = productService.getProductsWithFilters(
+                1, pageSize, "approved", null, null, null, null, null, null,
+                null, null, null, null, null);
+
+        assertEquals(pageSize, result.getContent().size());
+        ProductDTO first = result.getContent().get(0);
+        assertEquals("category101", first.getCategoryName());
+        assertEquals("user1001", first.getMerchantName());
+        assertEquals("user5001", first.getAuditUserName());
+        assertEquals(EXPECTED_QUERIES, QueryCounter.count(productMapper, userMapper));
+    }
+
+    private static Product product(long id, long categoryId, long merchantId, long auditUserId) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        product.setMerchantId(merchantId);
+        product.setAuditUserId(auditUserId);
+        return product;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        return user;
+    }
+}
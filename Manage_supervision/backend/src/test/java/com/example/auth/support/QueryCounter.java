@@ -0,0 +1,36 @@
+package com.example.auth.support;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.mockito.Mockito;
+
+/**
+ * 统计Mapper模拟对象上的调用次数，每次Mapper调用对应一条SQL语句
+ */
+public final class QueryCounter {
+
+    private QueryCounter() {
+    }
+
+    /**
+     * 注册实体的表信息，使LambdaQueryWrapper在没有MyBatis环境时也能解析列名
+     */
+    public static void registerEntities(Class<?>... entityClasses) {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        for (Class<?> entityClass : entityClasses) {
+            TableInfoHelper.initTableInfo(assistant, entityClass);
+        }
+    }
+
+    /**
+     * 统计给定Mapper模拟对象上的调用总数
+     */
+    public static int count(Object... mappers) {
+        int total = 0;
+        for (Object mapper : mappers) {
+            total += Mockito.mockingDetails(mapper).getInvocations().size();
+        }
+        return total;
+    }
+}
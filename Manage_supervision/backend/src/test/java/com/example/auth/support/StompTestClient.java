@@ -0,0 +1,92 @@
+package com.example.auth.support;
+
+import com.example.auth.util.JwtUtil;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 测试用STOMP客户端：连接原生WebSocket端点（/ws-native），以指定用户身份收发私聊消息
+ */
+public final class StompTestClient {
+
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+
+    private StompTestClient() {
+    }
+
+    /**
+     * 创建使用JSON消息转换的STOMP客户端，多个会话可共用
+     */
+    public static WebSocketStompClient newClient() {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        return client;
+    }
+
+    /**
+     * 用与服务端相同的密钥签发Token（令牌版本为0，用户未被吊销过时有效）
+     */
+    public static String token(String secret, long userId) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", secret);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", 0L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheTtlSeconds", 1L);
+        jwtUtil.init();
+        return jwtUtil.generateToken("user" + userId, userId, List.of(), 0);
+    }
+
+    /**
+     * 携带Authorization头建立STOMP会话
+     */
+    public static StompSession connect(WebSocketStompClient client, String url, String token,
+                                       StompSessionHandler handler) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+        return client.connectAsync(url, new WebSocketHttpHeaders(), connectHeaders, handler)
+                .get(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 订阅当前用户的私聊消息队列
+     */
+    public static StompSession.Subscription subscribeMessages(StompSession session,
+                                                              Consumer<Map<String, Object>> onMessage) {
+        return session.subscribe("/user/queue/messages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                onMessage.accept((Map<String, Object>) payload);
+            }
+        });
+    }
+
+    /**
+     * 发送私聊消息（/app/chat.sendMessage）
+     */
+    public static void sendMessage(StompSession session, long recipientId, String content) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("recipientId", recipientId);
+        payload.put("content", content);
+        session.send("/app/chat.sendMessage", payload);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.auth.websocket;
+
+import com.example.auth.support.StompTestClient;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 聊天WebSocket压测工具
+ *
+ * 建立N个本地STOMP客户端（用户ID从first-user-id起连续，必须已存在），每个客户端按固定间隔给下一个客户端发消息，
+ * 消息内容携带发送时刻，接收方据此统计投递延迟的p50/p99。
+ * 可把前K个客户端设为慢消费者（每条消息阻塞slow-delay-ms），用来验证服务端的发送时限和缓冲上限会断开慢会话，
+ * 而其他会话的延迟不受影响；慢消费者收到的消息不计入延迟统计。
+ * 慢消费者阻塞的是客户端的读线程，K应小于本机CPU核数，否则客户端自身的读线程会被占满。
+ *
+ * 运行（服务端已启动）：
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.auth.websocket.ChatLoadHarness
+ *     -Dload.jwt-secret=... -Dload.first-user-id=2 -Dload.clients=200 [-Dload.slow-consumers=5]
+ */
+public class ChatLoadHarness {
+
+    private static final String CONTENT_PREFIX = "load:";
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url", "ws://localhost:8081/ws-native");
+        String secret = System.getProperty("load.jwt-secret");
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("必须通过-Dload.jwt-secret指定服务端的jwt.secret");
+        }
+        long firstUserId = Long.getLong("load.first-user-id", 2L);
+        int clients = Integer.getInteger("load.clients", 100);
+        int messagesPerClient = Integer.getInteger("load.messages-per-client", 100);
+        long sendIntervalMs = Long.getLong("load.send-interval-ms", 20L);
+        int slowConsumers = Integer.getInteger("load.slow-consumers", 0);
+        long slowDelayMs = Long.getLong("load.slow-delay-ms", 500L);
+        if (clients < 2) {
+            throw new IllegalArgumentException("load.clients至少为2");
+        }
+
+        ConcurrentLinkedQueue<Long> latenciesMicros = new ConcurrentLinkedQueue<>();
+        AtomicLong received = new AtomicLong();
+        AtomicInteger transportErrors = new AtomicInteger();
+
+        WebSocketStompClient client = StompTestClient.newClient();
+        List<StompSession> sessions = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            boolean slow = i < slowConsumers;
+            long userId = firstUserId + i;
+            StompSession session = StompTestClient.connect(client, url, StompTestClient.token(secret, userId),
+                    new StompSessionHandlerAdapter() {
+                        @Override
+                        public void handleTransportError(StompSession session, Throwable exception) {
+                            transportErrors.incrementAndGet();
+                        }
+
+                        @Override
+                        public void handleException(StompSession session, StompCommand command,
+                                                    StompHeaders headers, byte[] payload, Throwable exception) {
+                            transportErrors.incrementAndGet();
+                        }
+                    });
+            StompTestClient.subscribeMessages(session, message -> {
+                Object content = message.get("content");
+                Object recipientId = message.get("recipientId");
+                if (!(content instanceof String) || !((String) content).startsWith(CONTENT_PREFIX)
+                        || !(recipientId instanceof Number) || ((Number) recipientId).longValue() != userId) {
+                    return;
+                }
+                if (slow) {
+                    sleep(slowDelayMs);
+                    return;
+                }
+                long sentAt = Long.parseLong(((String) content).substring(CONTENT_PREFIX.length()));
+                latenciesMicros.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt));
+                received.incrementAndGet();
+            });
+            sessions.add(session);
+        }
+        System.out.printf("已建立%d个会话（慢消费者%d个），开始发送%n", clients, slowConsumers);
+
+        // 每个客户端由一个定时任务串行发送，同一会话不会并发写
+        ScheduledExecutorService senders = Executors.newScheduledThreadPool(
+                Math.min(clients, Runtime.getRuntime().availableProcessors() * 2));
+        AtomicLong sent = new AtomicLong();
+        AtomicInteger sendFailures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            StompSession session = sessions.get(i);
+            long recipientId = firstUserId + (i + 1) % clients;
+            AtomicInteger remaining = new AtomicInteger(messagesPerClient);
+            senders.scheduleAtFixedRate(() -> {
+                if (remaining.getAndDecrement() <= 0 || !session.isConnected()) {
+                    return;
+                }
+                try {
+                    StompTestClient.sendMessage(session, recipientId, CONTENT_PREFIX + System.nanoTime());
+                    sent.incrementAndGet();
+                } catch (Exception e) {
+                    sendFailures.incrementAndGet();
+                }
+            }, i % sendIntervalMs, sendIntervalMs, TimeUnit.MILLISECONDS);
+        }
+
+        // 等待发送完成后再留出投递时间
+        long expectedFast = (long) (clients - slowConsumers) * messagesPerClient;
+        long sendDurationMs = messagesPerClient * sendIntervalMs;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendDurationMs + 30_000);
+        while (received.get() < expectedFast && System.nanoTime() < deadline) {
+            sleep(200);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        senders.shutdownNow();
+
+        int connected = 0;
+        for (StompSession session : sessions) {
+            if (session.isConnected()) {
+                connected++;
+                session.disconnect();
+            }
+        }
+        client.stop();
+
+        long[] latencies = latenciesMicros.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(latencies);
+        System.out.printf("耗时%d ms，发送%d条（失败%d），正常会话收到%d/%d条%n",
+                elapsedMs, sent.get(), sendFailures.get(), received.get(), expectedFast);
+        System.out.printf("结束时仍连接的会话%d/%d，传输错误%d次%n", connected, clients, transportErrors.get());
+        if (latencies.length > 0) {
+            System.out.printf("投递延迟(ms) p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                    percentile(latencies, 50), percentile(latencies, 90),
+                    percentile(latencies, 99), latencies[latencies.length - 1] / 1000.0);
+        }
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
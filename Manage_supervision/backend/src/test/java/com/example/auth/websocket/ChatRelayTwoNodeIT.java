@@ -0,0 +1,122 @@
+package com.example.auth.websocket;
+
+import com.example.auth.AuthApplication;
+import com.example.auth.common.cache.TokenVersionRegistry;
+import com.example.auth.support.StompTestClient;
+import com.example.auth.util.JwtUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 两节点中继投递测试：在本机启动两个relay模式的应用节点，连接到同一个外部STOMP代理和数据库，
+ * 用户A连接节点1、用户B连接节点2，A发送的私聊消息必须经代理投递到B
+ *
+ * 需要本地可用的外部STOMP代理（如启用STOMP插件的RabbitMQ）和application.yml中配置的MySQL，默认跳过：
+ * mvn test -Dtest=ChatRelayTwoNodeIT -Dchat.it.relay-host=localhost -Dchat.it.user-a=2 -Dchat.it.user-b=3
+ * user-a、user-b为数据库中已存在的两个不同用户
+ */
+@EnabledIfSystemProperty(named = "chat.it.relay-host", matches = ".+")
+class ChatRelayTwoNodeIT {
+
+    private static final long DELIVERY_TIMEOUT_SECONDS = 30;
+
+    private static ConfigurableApplicationContext node1;
+
+    private static ConfigurableApplicationContext node2;
+
+    private static long userA;
+
+    private static long userB;
+
+    @BeforeAll
+    static void startNodes() {
+        userA = Long.getLong("chat.it.user-a", 2L);
+        userB = Long.getLong("chat.it.user-b", 3L);
+        node1 = startNode(1);
+        node2 = startNode(2);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (node1 != null) {
+            node1.close();
+        }
+        if (node2 != null) {
+            node2.close();
+        }
+    }
+
+    @Test
+    void messageSentOnOneNodeReachesRecipientOnTheOther() throws Exception {
+        WebSocketStompClient client = StompTestClient.newClient();
+        StompSession sessionA = StompTestClient.connect(client, url(node1), token(node1, userA),
+                new StompSessionHandlerAdapter() {});
+        StompSession sessionB = StompTestClient.connect(client, url(node2), token(node2, userB),
+                new StompSessionHandlerAdapter() {});
+        try {
+            String content = "relay-it-" + UUID.randomUUID();
+            CompletableFuture<Map<String, Object>> received = new CompletableFuture<>();
+            StompTestClient.subscribeMessages(sessionB, message -> {
+                if (content.equals(message.get("content"))) {
+                    received.complete(message);
+                }
+            });
+
+            // 订阅经代理生效前发送的消息可能收不到，未收到时重发直到超时
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DELIVERY_TIMEOUT_SECONDS);
+            Map<String, Object> message = null;
+            while (message == null) {
+                StompTestClient.sendMessage(sessionA, userB, content);
+                try {
+                    message = received.get(1, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    if (System.nanoTime() - deadline > 0) {
+                        throw new AssertionError("节点2上的用户" + userB + "在" + DELIVERY_TIMEOUT_SECONDS + "秒内未收到消息");
+                    }
+                }
+            }
+
+            assertEquals(userA, ((Number) message.get("senderId")).longValue());
+            assertEquals(userB, ((Number) message.get("recipientId")).longValue());
+        } finally {
+            sessionA.disconnect();
+            sessionB.disconnect();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(int nodeId) {
+        // 以命令行参数传入，优先级高于application.yml
+        return new SpringApplicationBuilder(AuthApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--id.node-id=" + nodeId,
+                "--chat.broker.mode=relay",
+                "--chat.broker.relay-host=" + System.getProperty("chat.it.relay-host"),
+                "--chat.broker.relay-port=" + System.getProperty("chat.it.relay-port", "61613"));
+    }
+
+    private static String url(ConfigurableApplicationContext node) {
+        return "ws://localhost:" + node.getEnvironment().getProperty("local.server.port") + "/ws-native";
+    }
+
+    private static String token(ConfigurableApplicationContext node, long userId) {
+        int version = node.getBean(TokenVersionRegistry.class).currentVersion(userId);
+        return node.getBean(JwtUtil.class).generateToken("user" + userId, userId, List.of(), version);
+    }
+}
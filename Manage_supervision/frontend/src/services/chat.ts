@@ -23,6 +23,8 @@ export interface ChatMessage {
   fileName?: string;
   fileType?: string;
   fileSize?: number;
+  // 提交顺序号，增量同步历史消息时作为after游标
+  seq?: number;
 }
 
 export interface Conversation {
@@ -215,7 +217,7 @@ class ChatService {
     
     if (this.client && userId) {
       try {
-        console.log(`订阅个人消息通道: /user/${userId}/queue/messages`);
+        console.log(`订阅个人消息通道: /user/queue/messages (用户 ${userId})`);
         // 首先取消所有现有订阅
         if (this.messageSubscription) {
           this.messageSubscription.unsubscribe();
@@ -226,15 +228,15 @@ class ChatService {
         
         // 订阅个人消息
         this.messageSubscription = this.client.subscribe(
-          `/user/${userId}/queue/messages`, 
+          `/user/queue/messages`, 
           this.onMessageReceived.bind(this),
           { id: `messages-${userId}` }
         );
         
         // 订阅通知
         this.notificationSubscription = this.client.subscribe(
-          `/user/${userId}/queue/notifications`, 
-          this.onErrorReceived.bind(this),
+          `/user/queue/notifications`, 
+          this.onNotificationReceived.bind(this),
           { id: `notifications-${userId}` }
         );
         
@@ -370,15 +372,27 @@ class ChatService {
     );
   }
   
-  // 接收错误通知回调
-  private onErrorReceived(message: IMessage) {
+  // 接收通知回调，按通知类型分发
+  private onNotificationReceived(message: IMessage) {
     try {
-      const errorInfo = JSON.parse(message.body);
-      console.error('收到错误通知:', errorInfo);
+      const notification = JSON.parse(message.body);
       
-      // 这里可以添加错误处理逻辑，比如显示通知给用户
+      switch (notification.type) {
+        case 'UNREAD_COUNT':
+          // 服务端在未读数变化时推送最新值，无需轮询未读数接口
+          chatEvents.emit('unreadCountUpdated', {
+            unreadMessages: notification.unreadMessages,
+            unreadConversations: notification.unreadConversations
+          });
+          break;
+        case 'READ_NOTIFICATION':
+          console.log('对方已读消息:', notification);
+          break;
+        default:
+          console.error('收到错误通知:', notification);
+      }
     } catch (error) {
-      console.error('处理错误通知失败:', error);
+      console.error('处理通知失败:', error);
     }
   }
   
@@ -90,6 +90,11 @@ export const useChatStore = defineStore('chat', {
         // 注册消息回调
         chatService.onMessage(this.handleNewMessage.bind(this));
         
+        // 未读总数以服务端推送为准
+        chatEvents.on('unreadCountUpdated', (data: { unreadMessages: number }) => {
+          this.unreadCount = data.unreadMessages;
+        });
+        
         // 自动加载会话列表
         await this.loadConversations();
         
@@ -17,6 +17,13 @@ DROP TABLE IF EXISTS products;
 DROP TABLE IF EXISTS orders;
 DROP TABLE IF EXISTS order_items;
 DROP TABLE IF EXISTS payments;
+DROP TABLE IF EXISTS stock_ledger_journal;
+DROP TABLE IF EXISTS id_sequences;
+DROP TABLE IF EXISTS user_unread;
+DROP TABLE IF EXISTS merchant_daily_stats;
+DROP TABLE IF EXISTS scheduler_leases;
+DROP TABLE IF EXISTS user_tombstones;
+DROP TABLE IF EXISTS chat_message_dead_letters;
 
 -- 启用外键检查
 SET FOREIGN_KEY_CHECKS = 1;
@@ -43,7 +50,9 @@ CREATE TABLE IF NOT EXISTS users (
     phone VARCHAR(20),
     bio TEXT,
     status VARCHAR(20) DEFAULT 'active',
-    user_number VARCHAR(20) UNIQUE
+    user_number VARCHAR(20) UNIQUE,
+    token_version INT NOT NULL DEFAULT 0, -- 令牌版本，禁用、改密、改角色时递增使旧Token失效
+    token_revoked_at DATETIME NULL -- 最近一次递增令牌版本的时间
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 
 -- 创建用户-角色关联表
@@ -64,6 +73,10 @@ CREATE TABLE conversations (
     last_message_time DATETIME DEFAULT CURRENT_TIMESTAMP,
     unread_count_user1 INT NOT NULL DEFAULT 0,
     unread_count_user2 INT NOT NULL DEFAULT 0,
+    -- 规范化的用户对（小ID, 大ID），同一对用户只能有一个会话
+    user_low_id BIGINT AS (LEAST(user1_id, user2_id)) STORED,
+    user_high_id BIGINT AS (GREATEST(user1_id, user2_id)) STORED,
+    UNIQUE KEY uk_conversations_user_pair (user_low_id, user_high_id),
     CONSTRAINT FK_conversations_user1 FOREIGN KEY (user1_id) REFERENCES users (id) ON DELETE CASCADE,
     CONSTRAINT FK_conversations_user2 FOREIGN KEY (user2_id) REFERENCES users (id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -81,6 +94,7 @@ CREATE TABLE chat_messages (
     file_name VARCHAR(255),
     file_type VARCHAR(255),
     file_size BIGINT,
+    seq BIGINT NOT NULL COMMENT '提交顺序号，在写入事务中按提交顺序分配，用作历史消息游标',
     CONSTRAINT FK_chat_messages_conversation FOREIGN KEY (conversation_id) REFERENCES conversations (id) ON DELETE CASCADE,
     CONSTRAINT FK_chat_messages_sender FOREIGN KEY (sender_id) REFERENCES users (id) ON DELETE CASCADE,
     CONSTRAINT FK_chat_messages_recipient FOREIGN KEY (recipient_id) REFERENCES users (id) ON DELETE CASCADE
@@ -178,10 +192,74 @@ CREATE TABLE payments (
     CONSTRAINT FK_payment_order FOREIGN KEY (order_id) REFERENCES orders (id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 
+-- 创建热点商品库存流水表（内存库存账本尚未回写到products.stock的变化）
+CREATE TABLE stock_ledger_journal (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    delta INT NOT NULL COMMENT '库存变化量：扣减为负数，归还为正数'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 创建ID序列表（按段预分配ID，如聊天消息写入数据库前需要先推送；也记录各节点雪花ID的时间戳高水位）
+CREATE TABLE id_sequences (
+    name VARCHAR(50) PRIMARY KEY,
+    next_id BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 创建用户未读计数表（与消息写入、标记已读在同一事务中维护）
+CREATE TABLE user_unread (
+    user_id BIGINT PRIMARY KEY,
+    unread_messages INT NOT NULL DEFAULT 0,
+    unread_conversations INT NOT NULL DEFAULT 0,
+    CONSTRAINT FK_user_unread_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 创建商家每日统计表（随订单状态变化增量维护，供商家报表读取）
+CREATE TABLE merchant_daily_stats (
+    merchant_id BIGINT NOT NULL,
+    day DATE NOT NULL COMMENT '订单创建日期；退款金额按退款日期记录',
+    status VARCHAR(20) NOT NULL COMMENT '订单当前状态',
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0 COMMENT '当天创建、处于该状态的订单中属于该商家的金额',
+    refunds DECIMAL(14, 2) NOT NULL DEFAULT 0 COMMENT '当天发生的退款金额（仅refunded行）',
+    order_count INT NOT NULL DEFAULT 0 COMMENT '当天创建、处于该状态的订单数',
+    PRIMARY KEY (merchant_id, day, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 创建定时任务租约表（多节点部署时同一任务只由持有租约的节点执行）
+CREATE TABLE scheduler_leases (
+    name VARCHAR(50) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    expire_time DATETIME(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 创建聊天消息死信表（多次重试仍无法写入的消息，不设外键）
+CREATE TABLE chat_message_dead_letters (
+    id BIGINT PRIMARY KEY,
+    conversation_id BIGINT,
+    sender_id BIGINT NOT NULL,
+    recipient_id BIGINT NOT NULL,
+    content VARCHAR(2000) NOT NULL,
+    sent_time DATETIME NOT NULL,
+    file_url VARCHAR(255),
+    file_name VARCHAR(255),
+    file_type VARCHAR(255),
+    file_size BIGINT,
+    error VARCHAR(1000),
+    create_time DATETIME NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 创建已删除用户记录表（用户删除后拒绝其未过期的Token，保留一个Token有效期）
+CREATE TABLE user_tombstones (
+    user_id BIGINT PRIMARY KEY,
+    delete_time DATETIME NOT NULL,
+    INDEX idx_user_tombstones_delete_time (delete_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
 -- 创建索引以提高查询性能
+CREATE INDEX idx_users_token_revoked_at ON users(token_revoked_at);
 CREATE INDEX idx_conversations_user1_id ON conversations(user1_id);
 CREATE INDEX idx_conversations_user2_id ON conversations(user2_id);
-CREATE INDEX idx_chat_messages_conversation_id ON chat_messages(conversation_id);
+-- 会话历史按(conversation_id, id)定位翻页
+CREATE INDEX idx_chat_messages_conversation_seq ON chat_messages(conversation_id, seq);
 CREATE INDEX idx_chat_messages_sender_id ON chat_messages(sender_id);
 CREATE INDEX idx_chat_messages_recipient_id ON chat_messages(recipient_id);
 CREATE INDEX idx_merchant_user_merchant_id ON merchant_user_relations(merchant_id);
@@ -191,16 +269,21 @@ CREATE INDEX idx_product_category_id ON products(category_id);
 CREATE INDEX idx_product_merchant_id ON products(merchant_id);
 CREATE INDEX idx_product_status ON products(status);
 CREATE INDEX idx_product_name ON products(name);
+CREATE FULLTEXT INDEX ft_product_name_description ON products(name, description) WITH PARSER ngram;
 
 -- 为订单表创建索引
-CREATE INDEX idx_order_user_id ON orders(user_id);
 CREATE INDEX idx_order_number ON orders(order_number);
-CREATE INDEX idx_order_status ON orders(status);
+-- 按状态筛选订单，以及按下单时间扫描超时未支付订单
+CREATE INDEX idx_order_status_create_time ON orders(status, create_time);
+-- 用户订单按下单时间分页，前缀同时覆盖按user_id查询
+CREATE INDEX idx_order_user_create_time ON orders(user_id, create_time);
+-- 商家售后订单只扫描售后中的订单，索引隐含主键，同一售后状态内按订单ID有序
+CREATE INDEX idx_order_after_sale_status ON orders(after_sale_status);
 
 -- 为订单商品表创建索引
 CREATE INDEX idx_order_item_order_id ON order_items(order_id);
 CREATE INDEX idx_order_item_product_id ON order_items(product_id);
-CREATE INDEX idx_order_item_merchant_id ON order_items(merchant_id);
+CREATE INDEX idx_order_item_merchant_order ON order_items(merchant_id, order_id);
 
 -- 为支付表创建索引
 CREATE INDEX idx_payment_order_id ON payments(order_id);